@@ -0,0 +1,118 @@
+package frc.lib;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.controls.ControlRequest;
+import com.ctre.phoenix6.controls.NeutralOut;
+import com.ctre.phoenix6.hardware.ParentDevice;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Sends a Phoenix 6 control request only when its type or values change. Build requests with
+ * {@link #UPDATE_FREQUENCY} and keep one per control type, they are compared by identity.
+ */
+public class ControlOutput {
+
+    /** Hz, Phoenix's slowest background re-send, 50 ms between frames at worst */
+    public static final double UPDATE_FREQUENCY = 20;
+
+    private static final double VALUE_EPSILON = 1e-4;
+    /** Seconds between dashboard updates of the frame counts */
+    private static final double PUBLISH_PERIOD = 0.5;
+
+    private static final List<ControlOutput> outputs = new ArrayList<>();
+    private static final Set<String> devices = new HashSet<>();
+    private static double lastPublish = 0;
+
+    private final String name;
+    private final Function<ControlRequest, StatusCode> sender;
+    private final NeutralOut neutral = new NeutralOut().withUpdateFreqHz(UPDATE_FREQUENCY);
+
+    private ControlRequest lastRequest = null;
+    private double lastValue = Double.NaN;
+    private double lastValue2 = Double.NaN;
+
+    private int framesSent = 0;
+    private int framesSkipped = 0;
+
+    /**
+     * @param name Device name for the frame counts, e.g. "Arm"
+     * @param device The motor controller, only one ControlOutput may drive it
+     * @param sender The device's setControl, e.g. {@code motor::setControl}
+     */
+    public ControlOutput(String name, ParentDevice device, Function<ControlRequest, StatusCode> sender) {
+        String key = device.getClass().getSimpleName() + " " + device.getDeviceID() + " on \"" + device.getNetwork() + "\"";
+        synchronized (outputs) {
+            if (!devices.add(key)) {
+                throw new IllegalStateException(name + " would share " + key + " with another ControlOutput");
+            }
+            outputs.add(this);
+        }
+        this.name = name;
+        this.sender = sender;
+    }
+
+    /**
+     * @param request Request with its values already written
+     * @param value The request's main value (output, position, velocity)
+     */
+    public void set(ControlRequest request, double value) {
+        set(request, value, 0);
+    }
+
+    /**
+     * @param request Request with its values already written
+     * @param value The request's main value (output, position, velocity)
+     * @param value2 A second value that should also trigger a send (feedforward, acceleration)
+     */
+    public synchronized void set(ControlRequest request, double value, double value2) {
+        if (request == lastRequest
+            && Math.abs(value - lastValue) <= VALUE_EPSILON
+            && Math.abs(value2 - lastValue2) <= VALUE_EPSILON) {
+            framesSkipped++;
+            return;
+        }
+
+        sender.apply(request);
+        lastRequest = request;
+        lastValue = value;
+        lastValue2 = value2;
+        framesSent++;
+    }
+
+    /** Neutral output, replaces {@code stopMotor()}. */
+    public void stop() {
+        set(neutral, 0);
+    }
+
+    public int getFramesSent() {
+        return framesSent;
+    }
+
+    public int getFramesSkipped() {
+        return framesSkipped;
+    }
+
+    /** Publishes frames sent and skipped for every device under CAN/, call once per loop. */
+    public static void publishStats() {
+        double now = Timer.getFPGATimestamp();
+        if (now - lastPublish < PUBLISH_PERIOD) {
+            return;
+        }
+        lastPublish = now;
+
+        synchronized (outputs) {
+            for (ControlOutput output : outputs) {
+                SmartDashboard.putNumber("CAN/" + output.name + "/Frames Sent", output.framesSent);
+                SmartDashboard.putNumber("CAN/" + output.name + "/Frames Skipped", output.framesSkipped);
+            }
+        }
+    }
+}
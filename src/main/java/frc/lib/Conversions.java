@@ -41,4 +41,16 @@ public class Conversions {
         double wheelRotations = wheelMeters / circumference;
         return wheelRotations;
     }
+
+    /**
+     * Extrapolates a sampled value to the present using its rate of change.
+     * @param value Sampled Value
+     * @param slope Rate of Change of the Value: (in Units per Second)
+     * @param latencySeconds Age of the Sample: (in Seconds), clamped to 0.3s so a dead signal can't run away
+     * @return Estimated Value Now
+     */
+    public static double latencyCompensate(double value, double slope, double latencySeconds){
+        double latency = Math.min(Math.max(latencySeconds, 0.0), 0.3);
+        return value + slope * latency;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,223 @@
+package frc.lib;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.DoubleSubscriber;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.PubSubOption;
+import edu.wpi.first.networktables.TimestampedDoubleArray;
+
+/**
+ * One Limelight's NetworkTables subscribers, resolved once instead of by name every call.
+ * Get one per camera with {@link #get(String)}.
+ */
+public class LimelightCamera {
+
+    private static final Map<String, LimelightCamera> cameras = new HashMap<>();
+
+    /** MegaTag2 frames held between {@link #readMegaTag2Queue()} calls, a 90 FPS camera sends about 2 per loop */
+    public static final int MEGATAG2_QUEUE_DEPTH = 16;
+
+    /** Fiducials and detections kept per JSON result */
+    public static final int RESULTS_CAPACITY = 16;
+
+    private static final double[] EMPTY = new double[0];
+
+    private final String name;
+    private final NetworkTableInstance nt;
+
+    private final DoubleSubscriber tv;
+    private final DoubleSubscriber tx;
+    private final DoubleSubscriber ty;
+    private final DoubleSubscriber ta;
+    private final DoubleSubscriber tid;
+    private final DoubleSubscriber pipelineLatency;
+    private final DoubleSubscriber captureLatency;
+    private final DoubleArraySubscriber botPoseTargetSpace;
+    private final DoubleArraySubscriber botPoseWpiBlue;
+    private final DoubleArraySubscriber botPoseMegaTag2WpiBlue;
+    private final DoubleArraySubscriber rawFiducials;
+
+    private final DoubleArrayPublisher robotOrientation;
+    private final DoublePublisher pipeline;
+    private final double[] orientation = new double[6];
+
+    private LimelightResultsReader resultsReader = null;
+
+    /**
+     * @param name Limelight name, e.g. "limelight-front"
+     * @return The camera for that name, created on first use
+     */
+    public static synchronized LimelightCamera get(String name) {
+        return cameras.computeIfAbsent(LimelightHelpers.sanitizeName(name), LimelightCamera::new);
+    }
+
+    private LimelightCamera(String name) {
+        this.name = name;
+        nt = NetworkTableInstance.getDefault();
+        NetworkTable table = nt.getTable(name);
+
+        tv = table.getDoubleTopic("tv").subscribe(0.0);
+        tx = table.getDoubleTopic("tx").subscribe(0.0);
+        ty = table.getDoubleTopic("ty").subscribe(0.0);
+        ta = table.getDoubleTopic("ta").subscribe(0.0);
+        tid = table.getDoubleTopic("tid").subscribe(-1.0);
+        pipelineLatency = table.getDoubleTopic("tl").subscribe(0.0);
+        captureLatency = table.getDoubleTopic("cl").subscribe(0.0);
+        botPoseTargetSpace = table.getDoubleArrayTopic("botpose_targetspace").subscribe(EMPTY);
+        botPoseWpiBlue = table.getDoubleArrayTopic("botpose_wpiblue").subscribe(EMPTY);
+        /* every frame is forwarded and kept, even one identical to the last */
+        botPoseMegaTag2WpiBlue = table.getDoubleArrayTopic("botpose_orb_wpiblue").subscribe(
+            EMPTY,
+            PubSubOption.sendAll(true),
+            PubSubOption.keepDuplicates(true),
+            PubSubOption.pollStorage(MEGATAG2_QUEUE_DEPTH)
+        );
+        rawFiducials = table.getDoubleArrayTopic("rawfiducials").subscribe(EMPTY);
+
+        robotOrientation = table.getDoubleArrayTopic("robot_orientation_set").publish();
+        pipeline = table.getDoubleTopic("pipeline").publish();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return Whether the camera is publishing, false means it isn't connected
+     */
+    public boolean isConnected() {
+        return botPoseMegaTag2WpiBlue.exists();
+    }
+
+    public boolean getTV() {
+        return tv.get() == 1.0;
+    }
+
+    /**
+     * @return Horizontal Offset to the Target: (in Degrees)
+     */
+    public double getTX() {
+        return tx.get();
+    }
+
+    /**
+     * @return Vertical Offset to the Target: (in Degrees)
+     */
+    public double getTY() {
+        return ty.get();
+    }
+
+    /**
+     * @return Target Area: (in Percent of the Image)
+     */
+    public double getTA() {
+        return ta.get();
+    }
+
+    /**
+     * @return ID of the primary AprilTag, -1 with none
+     */
+    public double getFiducialID() {
+        return tid.get();
+    }
+
+    /**
+     * @return Pipeline Plus Capture Latency: (in Milliseconds)
+     */
+    public double getLatency() {
+        return pipelineLatency.get() + captureLatency.get();
+    }
+
+    /**
+     * @return Robot pose in the primary tag's frame [x, y, z, roll, pitch, yaw], empty with no target
+     */
+    public double[] getBotPoseTargetSpace() {
+        return botPoseTargetSpace.get();
+    }
+
+    /**
+     * @return Latest MegaTag1 estimate in the blue origin frame, null before the first frame
+     */
+    public LimelightHelpers.PoseEstimate getBotPoseEstimateWpiBlue() {
+        TimestampedDoubleArray value = botPoseWpiBlue.getAtomic();
+        return LimelightHelpers.toPoseEstimate(value.value, value.timestamp, false);
+    }
+
+    /**
+     * @return Latest MegaTag2 estimate in the blue origin frame, null before the first frame
+     */
+    public LimelightHelpers.PoseEstimate getBotPoseEstimateMegaTag2WpiBlue() {
+        TimestampedDoubleArray value = botPoseMegaTag2WpiBlue.getAtomic();
+        return LimelightHelpers.toPoseEstimate(value.value, value.timestamp, true);
+    }
+
+    /**
+     * Refills out with the latest MegaTag2 estimate, only the NetworkTables array is allocated.
+     * @return out
+     */
+    public LimelightHelpers.MutablePoseEstimate fillBotPoseEstimateMegaTag2WpiBlue(LimelightHelpers.MutablePoseEstimate out) {
+        TimestampedDoubleArray value = botPoseMegaTag2WpiBlue.getAtomic();
+        return LimelightHelpers.fillPoseEstimate(out, value.value, value.timestamp, true);
+    }
+
+    /**
+     * @return Every MegaTag2 frame received since the last call, oldest first
+     */
+    public TimestampedDoubleArray[] readMegaTag2Queue() {
+        return botPoseMegaTag2WpiBlue.readQueue();
+    }
+
+    public LimelightHelpers.RawFiducial[] getRawFiducials() {
+        return LimelightHelpers.toRawFiducials(rawFiducials.get());
+    }
+
+    /**
+     * Refills out with the latest raw fiducials, only the NetworkTables array is allocated.
+     * @return out
+     */
+    public LimelightHelpers.FiducialBuffer fillRawFiducials(LimelightHelpers.FiducialBuffer out) {
+        return LimelightHelpers.fillRawFiducials(out, rawFiducials.get());
+    }
+
+    /**
+     * Sends the robot's orientation for MegaTag2 and flushes so the camera gets it this loop.
+     * @param yaw Robot Yaw, 0 facing the red alliance wall: (in Degrees)
+     * @param yawRate Yaw Rate: (in Degrees per Second)
+     */
+    public void setRobotOrientation(double yaw, double yawRate) {
+        orientation[0] = yaw;
+        orientation[1] = yawRate;
+        robotOrientation.set(orientation);
+        nt.flush();
+    }
+
+    /**
+     * Starts this camera's {@link LimelightResultsReader}, later calls return the running one.
+     * @param readFiducials Whether to parse the Fiducial section
+     * @param readDetections Whether to parse the Detector section
+     */
+    public synchronized LimelightResultsReader startResultsReader(boolean readFiducials, boolean readDetections) {
+        if (resultsReader == null) {
+            resultsReader = new LimelightResultsReader(name, readFiducials, readDetections, RESULTS_CAPACITY);
+            resultsReader.start();
+        }
+        return resultsReader;
+    }
+
+    /**
+     * @return The running results thread, null if it was never started
+     */
+    public synchronized LimelightResultsReader getResultsReader() {
+        return resultsReader;
+    }
+
+    public void setPipelineIndex(int index) {
+        pipeline.set(index);
+    }
+}
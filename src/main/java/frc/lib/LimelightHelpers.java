@@ -15,8 +15,6 @@ import edu.wpi.first.math.util.Units;
 import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.geometry.Translation2d;
 
-import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Arrays;
@@ -604,6 +602,118 @@ public class LimelightHelpers {
 
     }
 
+    /**
+     * Reusable, capacity bounded storage for raw fiducials, one array per field instead of one
+     * object per tag. Filled in place by {@link LimelightHelpers#fillRawFiducials} and
+     * {@link LimelightHelpers#fillPoseEstimate}, tags past the capacity are dropped.
+     */
+    public static class FiducialBuffer {
+        public final int[] ids;
+        public final double[] txnc;
+        public final double[] tync;
+        public final double[] ta;
+        public final double[] distToCamera;
+        public final double[] distToRobot;
+        public final double[] ambiguity;
+        /** Number of valid entries */
+        public int count = 0;
+
+        /**
+         * @param capacity Most fiducials kept per frame
+         */
+        public FiducialBuffer(int capacity) {
+            ids = new int[capacity];
+            txnc = new double[capacity];
+            tync = new double[capacity];
+            ta = new double[capacity];
+            distToCamera = new double[capacity];
+            distToRobot = new double[capacity];
+            ambiguity = new double[capacity];
+        }
+
+        /**
+         * Copies fiducials out of a NetworkTables array, 7 values per fiducial.
+         *
+         * @param data Array holding the fiducials
+         * @param offset Index of the first fiducial's first value
+         * @param fiducials Number of fiducials in the array
+         */
+        void fill(double[] data, int offset, int fiducials) {
+            count = Math.min(fiducials, ids.length);
+            for (int i = 0; i < count; i++) {
+                int baseIndex = offset + i * 7;
+                ids[i] = (int) data[baseIndex];
+                txnc[i] = data[baseIndex + 1];
+                tync[i] = data[baseIndex + 2];
+                ta[i] = data[baseIndex + 3];
+                distToCamera[i] = data[baseIndex + 4];
+                distToRobot[i] = data[baseIndex + 5];
+                ambiguity[i] = data[baseIndex + 6];
+            }
+        }
+    }
+
+    /**
+     * Reusable, capacity bounded storage for raw neural detector results, one array per field.
+     * Filled in place by {@link LimelightHelpers#fillRawDetections}, detections past the capacity
+     * are dropped. Corners are stored x, y interleaved, 8 values per detection.
+     */
+    public static class DetectionBuffer {
+        public final int[] classIds;
+        public final double[] txnc;
+        public final double[] tync;
+        public final double[] ta;
+        public final double[] corners;
+        /** Number of valid entries */
+        public int count = 0;
+
+        /**
+         * @param capacity Most detections kept per frame
+         */
+        public DetectionBuffer(int capacity) {
+            classIds = new int[capacity];
+            txnc = new double[capacity];
+            tync = new double[capacity];
+            ta = new double[capacity];
+            corners = new double[capacity * 8];
+        }
+    }
+
+    /**
+     * A pose estimate that is refilled in place by {@link LimelightHelpers#fillPoseEstimate}
+     * instead of allocated per frame. The pose is kept as primitives, only build a Pose2d with
+     * {@link #toPose2d()} for the estimates that are actually used.
+     */
+    public static class MutablePoseEstimate {
+        /** Meters */
+        public double x;
+        /** Meters */
+        public double y;
+        /** Radians */
+        public double yaw;
+        public double timestampSeconds;
+        public double latency;
+        public int tagCount;
+        public double tagSpan;
+        public double avgTagDist;
+        public double avgTagArea;
+        public boolean isMegaTag2;
+        /** False when the last fill had no data */
+        public boolean valid;
+        public final FiducialBuffer fiducials;
+
+        /**
+         * @param maxFiducials Most fiducials kept per estimate
+         */
+        public MutablePoseEstimate(int maxFiducials) {
+            fiducials = new FiducialBuffer(maxFiducials);
+        }
+
+        public Pose2d toPose2d() {
+            return new Pose2d(x, y, new Rotation2d(yaw));
+        }
+    }
+
     /**
      * Encapsulates the state of an internal Limelight IMU.
      */
@@ -737,9 +847,18 @@ public class LimelightHelpers {
         DoubleArrayEntry poseEntry = LimelightHelpers.getLimelightDoubleArrayEntry(limelightName, entryName);
         
         TimestampedDoubleArray tsValue = poseEntry.getAtomic();
-        double[] poseArray = tsValue.value;
-        long timestamp = tsValue.timestamp;
-        
+        return toPoseEstimate(tsValue.value, tsValue.timestamp, isMegaTag2);
+    }
+
+    /**
+     * Parses one botpose array, as read from NetworkTables, into a PoseEstimate.
+     *
+     * @param poseArray botpose array [x, y, z, roll, pitch, yaw, latency, tagCount, tagSpan, avgDist, avgArea, fiducials...]
+     * @param timestamp NetworkTables timestamp of the array in microseconds
+     * @param isMegaTag2 Whether the array came from a MegaTag2 topic
+     * @return PoseEstimate, or null if the array is empty
+     */
+    public static PoseEstimate toPoseEstimate(double[] poseArray, long timestamp, boolean isMegaTag2) {
         if (poseArray.length == 0) {
             // Handle the case where no data is available
             return null; // or some default PoseEstimate
@@ -778,6 +897,84 @@ public class LimelightHelpers {
         return new PoseEstimate(pose, adjustedTimestamp, latency, tagCount, tagSpan, tagDist, tagArea, rawFiducials, isMegaTag2);
     }
 
+    /**
+     * Allocation free version of {@link #toPoseEstimate}, parses one botpose array into an existing
+     * estimate.
+     *
+     * @param out Estimate to refill, valid is false if the array is empty
+     * @param poseArray botpose array as read from NetworkTables
+     * @param timestamp NetworkTables timestamp of the array in microseconds
+     * @param isMegaTag2 Whether the array came from a MegaTag2 topic
+     * @return out
+     */
+    public static MutablePoseEstimate fillPoseEstimate(MutablePoseEstimate out, double[] poseArray, long timestamp, boolean isMegaTag2) {
+        out.isMegaTag2 = isMegaTag2;
+        out.valid = poseArray.length >= 6;
+        if (!out.valid) {
+            out.tagCount = 0;
+            out.fiducials.count = 0;
+            return out;
+        }
+
+        out.x = poseArray[0];
+        out.y = poseArray[1];
+        out.yaw = Units.degreesToRadians(poseArray[5]);
+        out.latency = extractArrayEntry(poseArray, 6);
+        out.tagCount = (int)extractArrayEntry(poseArray, 7);
+        out.tagSpan = extractArrayEntry(poseArray, 8);
+        out.avgTagDist = extractArrayEntry(poseArray, 9);
+        out.avgTagArea = extractArrayEntry(poseArray, 10);
+        out.timestampSeconds = (timestamp / 1000000.0) - (out.latency / 1000.0);
+
+        if (poseArray.length == 11 + 7 * out.tagCount) {
+            out.fiducials.fill(poseArray, 11, out.tagCount);
+        } else {
+            out.fiducials.count = 0;
+        }
+        return out;
+    }
+
+    /**
+     * Allocation free version of {@link #toRawFiducials}.
+     *
+     * @param out Buffer to refill, empty if the array is malformed
+     * @param rawFiducialArray rawfiducials array, 7 values per fiducial
+     * @return out
+     */
+    public static FiducialBuffer fillRawFiducials(FiducialBuffer out, double[] rawFiducialArray) {
+        if (rawFiducialArray.length % 7 != 0) {
+            out.count = 0;
+            return out;
+        }
+        out.fill(rawFiducialArray, 0, rawFiducialArray.length / 7);
+        return out;
+    }
+
+    /**
+     * Allocation free version of {@link #toRawDetections}.
+     *
+     * @param out Buffer to refill, empty if the array is malformed
+     * @param rawDetectionArray rawdetections array, 12 values per detection
+     * @return out
+     */
+    public static DetectionBuffer fillRawDetections(DetectionBuffer out, double[] rawDetectionArray) {
+        int valsPerEntry = 12;
+        if (rawDetectionArray.length % valsPerEntry != 0) {
+            out.count = 0;
+            return out;
+        }
+        out.count = Math.min(rawDetectionArray.length / valsPerEntry, out.classIds.length);
+        for (int i = 0; i < out.count; i++) {
+            int baseIndex = i * valsPerEntry;
+            out.classIds[i] = (int) rawDetectionArray[baseIndex];
+            out.txnc[i] = rawDetectionArray[baseIndex + 1];
+            out.tync[i] = rawDetectionArray[baseIndex + 2];
+            out.ta[i] = rawDetectionArray[baseIndex + 3];
+            System.arraycopy(rawDetectionArray, baseIndex + 4, out.corners, i * 8, 8);
+        }
+        return out;
+    }
+
     /**
      * Gets the latest raw fiducial/AprilTag detection results from NetworkTables.
      * 
@@ -786,7 +983,16 @@ public class LimelightHelpers {
      */
     public static RawFiducial[] getRawFiducials(String limelightName) {
         var entry = LimelightHelpers.getLimelightNTTableEntry(limelightName, "rawfiducials");
-        var rawFiducialArray = entry.getDoubleArray(new double[0]);
+        return toRawFiducials(entry.getDoubleArray(new double[0]));
+    }
+
+    /**
+     * Parses a rawfiducials array, as read from NetworkTables.
+     *
+     * @param rawFiducialArray rawfiducials array, 7 values per fiducial
+     * @return Array of RawFiducial objects, empty if the array is malformed
+     */
+    public static RawFiducial[] toRawFiducials(double[] rawFiducialArray) {
         int valsPerEntry = 7;
         if (rawFiducialArray.length % valsPerEntry != 0) {
             return new RawFiducial[0];
@@ -819,7 +1025,16 @@ public class LimelightHelpers {
      */
     public static RawDetection[] getRawDetections(String limelightName) {
         var entry = LimelightHelpers.getLimelightNTTableEntry(limelightName, "rawdetections");
-        var rawDetectionArray = entry.getDoubleArray(new double[0]);
+        return toRawDetections(entry.getDoubleArray(new double[0]));
+    }
+
+    /**
+     * Parses a rawdetections array, as read from NetworkTables.
+     *
+     * @param rawDetectionArray rawdetections array, 12 values per detection
+     * @return Array of RawDetection objects, empty if the array is malformed
+     */
+    public static RawDetection[] toRawDetections(double[] rawDetectionArray) {
         int valsPerEntry = 12;
         if (rawDetectionArray.length % valsPerEntry != 0) {
             return new RawDetection[0];
@@ -1638,33 +1853,10 @@ public class LimelightHelpers {
     /////
 
     /**
-     * Asynchronously take snapshot.
+     * Asynchronously take snapshot, see {@link LimelightHttp}.
      */
     public static CompletableFuture<Boolean> takeSnapshot(String tableName, String snapshotName) {
-        return CompletableFuture.supplyAsync(() -> {
-            return SYNCH_TAKESNAPSHOT(tableName, snapshotName);
-        });
-    }
-
-    private static boolean SYNCH_TAKESNAPSHOT(String tableName, String snapshotName) {
-        URL url = getLimelightURLString(tableName, "capturesnapshot");
-        try {
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            if (snapshotName != null && !"".equals(snapshotName)) {
-                connection.setRequestProperty("snapname", snapshotName);
-            }
-
-            int responseCode = connection.getResponseCode();
-            if (responseCode == 200) {
-                return true;
-            } else {
-                System.err.println("Bad LL Request");
-            }
-        } catch (IOException e) {
-            System.err.println(e.getMessage());
-        }
-        return false;
+        return LimelightHttp.get(getLimelightURLString(tableName, "capturesnapshot"), snapshotName);
     }
 
     /**
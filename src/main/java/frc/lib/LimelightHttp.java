@@ -0,0 +1,154 @@
+package frc.lib;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Limelight HTTP requests on a small bounded pool with timeouts, duplicate pending requests share
+ * one future.
+ */
+public class LimelightHttp {
+
+    /* package private for the tests */
+    static final int THREADS = 2;
+    static final int QUEUE_DEPTH = 8;
+    /** Milliseconds */
+    static final int READ_TIMEOUT = 1000;
+    /** Milliseconds */
+    private static final int CONNECT_TIMEOUT = 500;
+
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        THREADS, THREADS, 0, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(QUEUE_DEPTH),
+        runnable -> {
+            Thread thread = new Thread(runnable, "Limelight HTTP");
+            thread.setDaemon(true);
+            return thread;
+        }
+    );
+
+    /* requests queued or running, keyed by URL and snapshot name */
+    private static final ConcurrentHashMap<String, CompletableFuture<Boolean>> pending = new ConcurrentHashMap<>();
+
+    private static volatile double lastLatency = 0;
+    private static final AtomicInteger requestsCoalesced = new AtomicInteger();
+    private static final AtomicInteger requestsRejected = new AtomicInteger();
+    private static final AtomicInteger requestsFailed = new AtomicInteger();
+
+    private LimelightHttp() {}
+
+    /**
+     * Sends a GET on the pool.
+     * @param url Request URL, see {@link LimelightHelpers#getLimelightURLString}
+     * @param snapshotName Sent as the snapname header when not null or empty
+     * @return Whether the camera answered 200, never completes exceptionally
+     */
+    public static CompletableFuture<Boolean> get(URL url, String snapshotName) {
+        if (url == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        String key = url + "|" + (snapshotName == null ? "" : snapshotName);
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        CompletableFuture<Boolean> existing = pending.putIfAbsent(key, future);
+        if (existing != null) {
+            requestsCoalesced.incrementAndGet();
+            return existing;
+        }
+
+        long queued = System.nanoTime();
+        try {
+            executor.execute(() -> {
+                boolean ok = false;
+                try {
+                    ok = send(url, snapshotName);
+                } catch (RuntimeException e) {
+                    /* e.g. a URL that isn't http, the future must still complete */
+                    requestsFailed.incrementAndGet();
+                    System.err.println("Bad LL Request: " + e);
+                } finally {
+                    lastLatency = (System.nanoTime() - queued) * 1e-6;
+                    /* later requests start a new one from here on */
+                    pending.remove(key, future);
+                    future.complete(ok);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            requestsRejected.incrementAndGet();
+            pending.remove(key, future);
+            future.complete(false);
+        }
+        return future;
+    }
+
+    private static boolean send(URL url, String snapshotName) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) url.openConnection();
+            connection.setConnectTimeout(CONNECT_TIMEOUT);
+            connection.setReadTimeout(READ_TIMEOUT);
+            connection.setRequestMethod("GET");
+            if (snapshotName != null && !"".equals(snapshotName)) {
+                connection.setRequestProperty("snapname", snapshotName);
+            }
+
+            if (connection.getResponseCode() == 200) {
+                return true;
+            }
+            System.err.println("Bad LL Request");
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        } finally {
+            if (connection != null) {
+                connection.disconnect();
+            }
+        }
+        requestsFailed.incrementAndGet();
+        return false;
+    }
+
+    /**
+     * @return Requests waiting for a thread
+     */
+    public static int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * @return Queue Plus Request Time of the last finished request: (in Milliseconds)
+     */
+    public static double getLastLatency() {
+        return lastLatency;
+    }
+
+    public static int getRequestsCoalesced() {
+        return requestsCoalesced.get();
+    }
+
+    public static int getRequestsRejected() {
+        return requestsRejected.get();
+    }
+
+    public static int getRequestsFailed() {
+        return requestsFailed.get();
+    }
+
+    /** Publishes the queue depth, latency and counts under Limelight/HTTP/. */
+    public static void publishStats() {
+        SmartDashboard.putNumber("Limelight/HTTP/Queue Depth", getQueueDepth());
+        SmartDashboard.putNumber("Limelight/HTTP/Latency", lastLatency);
+        SmartDashboard.putNumber("Limelight/HTTP/Coalesced", getRequestsCoalesced());
+        SmartDashboard.putNumber("Limelight/HTTP/Rejected", getRequestsRejected());
+        SmartDashboard.putNumber("Limelight/HTTP/Failed", getRequestsFailed());
+    }
+}
@@ -0,0 +1,305 @@
+package frc.lib;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringSubscriber;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Streams one Limelight's JSON results into preallocated {@link Results} on its own thread and
+ * hands them over through a triple buffer. Start one per camera with {@link LimelightCamera#startResultsReader}.
+ */
+public class LimelightResultsReader extends Thread {
+
+    /** Seconds between checks for a new dump, faster than the camera's frame rate */
+    private static final double POLL_PERIOD = 0.005;
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    /** One parsed dump, reused between frames. */
+    public static class Results {
+        /** Increases with every parse, 0 before the first one */
+        public long sequence = 0;
+        public int pipelineID;
+        /** Milliseconds */
+        public double latencyPipeline;
+        /** Milliseconds */
+        public double latencyCapture;
+        /** Milliseconds */
+        public double latencyJsonParse;
+        /** Limelight publish time, Milliseconds */
+        public double timestampLimelight;
+        /** Time the frame was captured on the RIO's FPGA clock, Milliseconds */
+        public double timestampRio;
+        public boolean valid;
+
+        /** [x, y, z, roll, pitch, yaw] in the blue origin frame, Meters and Degrees */
+        public final double[] botposeWpiBlue = new double[6];
+        public int tagCount;
+        /** Meters */
+        public double tagSpan;
+        /** Meters */
+        public double avgTagDist;
+        /** Percent of the Image */
+        public double avgTagArea;
+
+        /** Only ids, offsets and areas are filled, the dump has no distances or ambiguity */
+        public final LimelightHelpers.FiducialBuffer fiducials;
+        /** Corners are not filled */
+        public final LimelightHelpers.DetectionBuffer detections;
+
+        Results(int capacity) {
+            fiducials = new LimelightHelpers.FiducialBuffer(capacity);
+            detections = new LimelightHelpers.DetectionBuffer(capacity);
+        }
+    }
+
+    private final StringSubscriber json;
+    private final boolean readFiducials;
+    private final boolean readDetections;
+
+    /* triple buffer, back is the thread's, front is the reader's */
+    private final AtomicReference<Results> shared;
+    private Results back;
+    private Results front;
+    private long sequence = 0;
+    /* sequence of the results in shared, read without touching the object the thread may be filling */
+    private final AtomicLong sharedSequence = new AtomicLong();
+
+    private final DoublePublisher parseTimePublisher;
+    private final IntegerPublisher parseErrorsPublisher;
+
+    private volatile boolean running = true;
+    private volatile double lastParseTime = 0;
+    private volatile int parseErrors = 0;
+
+    /**
+     * @param limelightName Limelight name, e.g. "limelight-front"
+     * @param readFiducials Whether to parse the Fiducial section
+     * @param readDetections Whether to parse the Detector section
+     * @param capacity Most fiducials and detections kept per frame
+     */
+    public LimelightResultsReader(String limelightName, boolean readFiducials, boolean readDetections, int capacity) {
+        super("Limelight Results " + LimelightHelpers.sanitizeName(limelightName));
+        setDaemon(true);
+
+        String name = LimelightHelpers.sanitizeName(limelightName);
+        NetworkTableInstance nt = NetworkTableInstance.getDefault();
+        json = nt.getTable(name).getStringTopic("json").subscribe("");
+        this.readFiducials = readFiducials;
+        this.readDetections = readDetections;
+
+        back = new Results(capacity);
+        front = new Results(capacity);
+        shared = new AtomicReference<>(new Results(capacity));
+
+        NetworkTable stats = nt.getTable("Limelight").getSubTable(name);
+        parseTimePublisher = stats.getDoubleTopic("Parse Time").publish();
+        parseErrorsPublisher = stats.getIntegerTopic("Parse Errors").publish();
+    }
+
+    @Override
+    public void run() {
+        long lastChange = 0;
+        while (running) {
+            Timer.delay(POLL_PERIOD);
+
+            /* only copy the string out of NetworkTables when there is a new one */
+            long change = json.getLastChange();
+            if (change == lastChange) {
+                continue;
+            }
+            lastChange = change;
+
+            long start = System.nanoTime();
+            boolean parsed = parse(json.get(), back, readFiducials, readDetections);
+            double millis = (System.nanoTime() - start) * 1e-6;
+            lastParseTime = millis;
+            parseTimePublisher.set(millis);
+
+            if (!parsed) {
+                parseErrors++;
+                parseErrorsPublisher.set(parseErrors);
+                continue;
+            }
+
+            back.latencyJsonParse = millis;
+            back.sequence = ++sequence;
+            back = shared.getAndSet(back);
+            sharedSequence.set(sequence);
+        }
+    }
+
+    /**
+     * Swaps in the newest results, call from one thread only.
+     * @return Latest results, sequence 0 before the first parse
+     */
+    public Results getLatest() {
+        if (sharedSequence.get() > front.sequence) {
+            /* the thread may have swapped again since the check, that only makes this newer */
+            front = shared.getAndSet(front);
+        }
+        return front;
+    }
+
+    /**
+     * @return Time spent parsing the last dump: (in Milliseconds)
+     */
+    public double getLastParseTime() {
+        return lastParseTime;
+    }
+
+    public int getParseErrors() {
+        return parseErrors;
+    }
+
+    public void stopThread() {
+        running = false;
+    }
+
+    /**
+     * Parses one dump into out, package private so it can be benchmarked without NetworkTables.
+     * @return false if the dump is empty or malformed, out is then partly filled
+     */
+    static boolean parse(String text, Results out, boolean readFiducials, boolean readDetections) {
+        /* out holds an older frame, anything this dump leaves out must not carry over */
+        out.pipelineID = 0;
+        out.latencyPipeline = 0;
+        out.latencyCapture = 0;
+        out.timestampLimelight = 0;
+        out.timestampRio = 0;
+        out.valid = false;
+        Arrays.fill(out.botposeWpiBlue, 0);
+        out.tagCount = 0;
+        out.tagSpan = 0;
+        out.avgTagDist = 0;
+        out.avgTagArea = 0;
+        out.fiducials.count = 0;
+        out.detections.count = 0;
+        if (text.isEmpty()) {
+            return false;
+        }
+
+        try (JsonParser parser = jsonFactory.createParser(text)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "pID": out.pipelineID = parser.getValueAsInt(); break;
+                    case "tl": out.latencyPipeline = parser.getValueAsDouble(); break;
+                    case "cl": out.latencyCapture = parser.getValueAsDouble(); break;
+                    case "ts": out.timestampLimelight = parser.getValueAsDouble(); break;
+                    case "ts_rio": out.timestampRio = parser.getValueAsDouble(); break;
+                    case "v": out.valid = parser.getValueAsInt() == 1; break;
+                    case "botpose_wpiblue": readArray(parser, out.botposeWpiBlue); break;
+                    case "botpose_tagcount": out.tagCount = parser.getValueAsInt(); break;
+                    case "botpose_span": out.tagSpan = parser.getValueAsDouble(); break;
+                    case "botpose_avgdist": out.avgTagDist = parser.getValueAsDouble(); break;
+                    case "botpose_avgarea": out.avgTagArea = parser.getValueAsDouble(); break;
+                    case "Fiducial":
+                        if (readFiducials) {
+                            readFiducials(parser, out.fiducials);
+                        } else {
+                            parser.skipChildren();
+                        }
+                        break;
+                    case "Detector":
+                        if (readDetections) {
+                            readDetections(parser, out.detections);
+                        } else {
+                            parser.skipChildren();
+                        }
+                        break;
+                    /* does nothing for a scalar, skips to the end of an array or object */
+                    default: parser.skipChildren(); break;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /* copies up to out.length numbers, the rest of the array is skipped */
+    private static void readArray(JsonParser parser, double[] out) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        int i = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (i < out.length) {
+                out[i++] = parser.getValueAsDouble();
+            } else {
+                parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readFiducials(JsonParser parser, LimelightHelpers.FiducialBuffer out) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            if (out.count == out.ids.length) {
+                parser.skipChildren();
+                continue;
+            }
+            int i = out.count++;
+            out.distToCamera[i] = 0;
+            out.distToRobot[i] = 0;
+            out.ambiguity[i] = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "fID": out.ids[i] = parser.getValueAsInt(); break;
+                    case "tx_nocross": out.txnc[i] = parser.getValueAsDouble(); break;
+                    case "ty_nocross": out.tync[i] = parser.getValueAsDouble(); break;
+                    case "ta": out.ta[i] = parser.getValueAsDouble(); break;
+                    default: parser.skipChildren(); break;
+                }
+            }
+        }
+    }
+
+    private static void readDetections(JsonParser parser, LimelightHelpers.DetectionBuffer out) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            if (out.count == out.classIds.length) {
+                parser.skipChildren();
+                continue;
+            }
+            int i = out.count++;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                parser.nextToken();
+                switch (field) {
+                    case "classID": out.classIds[i] = parser.getValueAsInt(); break;
+                    case "tx_nocross": out.txnc[i] = parser.getValueAsDouble(); break;
+                    case "ty_nocross": out.tync[i] = parser.getValueAsDouble(); break;
+                    case "ta": out.ta[i] = parser.getValueAsDouble(); break;
+                    default: parser.skipChildren(); break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package frc.lib;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * Allocation free ring buffer of timestamped poses. Add in time order from one thread.
+ */
+public class PoseHistory {
+
+    private final double[] timestamps;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] thetas;
+
+    /* index of the oldest sample and how many samples are stored */
+    private int start = 0;
+    private int size = 0;
+
+    /** Meters, written by {@link #sample} */
+    public double sampleX;
+    /** Meters, written by {@link #sample} */
+    public double sampleY;
+    /** Radians, written by {@link #sample} */
+    public double sampleTheta;
+
+    /**
+     * @param capacity Samples kept before the oldest is overwritten
+     */
+    public PoseHistory(int capacity) {
+        timestamps = new double[capacity];
+        xs = new double[capacity];
+        ys = new double[capacity];
+        thetas = new double[capacity];
+    }
+
+    /**
+     * @param timestamp Sample Time: (in Seconds)
+     * @param x Field X: (in Meters)
+     * @param y Field Y: (in Meters)
+     * @param theta Heading: (in Radians)
+     */
+    public void add(double timestamp, double x, double y, double theta) {
+        if (size > 0 && timestamp <= timestamps[index(size - 1)]) {
+            return;
+        }
+
+        int slot;
+        if (size < timestamps.length) {
+            slot = index(size);
+            size++;
+        } else {
+            slot = start;
+            start = index(1);
+        }
+        timestamps[slot] = timestamp;
+        xs[slot] = x;
+        ys[slot] = y;
+        thetas[slot] = theta;
+    }
+
+    public void add(double timestamp, Pose2d pose) {
+        add(timestamp, pose.getX(), pose.getY(), pose.getRotation().getRadians());
+    }
+
+    /**
+     * Interpolates into {@link #sampleX}, {@link #sampleY} and {@link #sampleTheta}, clamped to the history.
+     * @param timestamp Lookup Time: (in Seconds)
+     * @return false if the history is empty and nothing was written
+     */
+    public boolean sample(double timestamp) {
+        if (size == 0) {
+            return false;
+        }
+
+        /* first sample at or after the timestamp */
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (timestamps[index(mid)] < timestamp) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+
+        int after = index(low);
+        if (low == 0 || timestamps[after] < timestamp) {
+            write(after);
+            return true;
+        }
+
+        int before = index(low - 1);
+        double t = (timestamp - timestamps[before]) / (timestamps[after] - timestamps[before]);
+        sampleX = xs[before] + (xs[after] - xs[before]) * t;
+        sampleY = ys[before] + (ys[after] - ys[before]) * t;
+        sampleTheta = MathUtil.angleModulus(thetas[before] + MathUtil.angleModulus(thetas[after] - thetas[before]) * t);
+        return true;
+    }
+
+    /**
+     * Allocating convenience around {@link #sample}.
+     * @param timestamp Lookup Time: (in Seconds)
+     * @return Interpolated pose, or null if the history is empty
+     */
+    public Pose2d getPoseAt(double timestamp) {
+        if (!sample(timestamp)) {
+            return null;
+        }
+        return new Pose2d(sampleX, sampleY, new Rotation2d(sampleTheta));
+    }
+
+    /** Drops every sample, call after the pose is reset so lookups never straddle the jump. */
+    public void clear() {
+        start = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void write(int slot) {
+        sampleX = xs[slot];
+        sampleY = ys[slot];
+        sampleTheta = thetas[slot];
+    }
+
+    private int index(int offset) {
+        return (start + offset) % timestamps.length;
+    }
+}
@@ -0,0 +1,105 @@
+package frc.lib;
+
+import java.lang.invoke.VarHandle;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * Latest pose and velocity behind a seqlock, read lock free from any thread. Writers must be serialized.
+ */
+public class PoseSnapshot {
+
+    /** One consistent copy of the snapshot, owned by the reader. */
+    public static class Sample {
+        /** Seconds */
+        public double timestamp;
+        /** Meters */
+        public double x;
+        /** Meters */
+        public double y;
+        /** Radians */
+        public double theta;
+        /** Robot Relative Forward Velocity: Meters per Second */
+        public double vx;
+        /** Robot Relative Left Velocity: Meters per Second */
+        public double vy;
+        /** Counterclockwise Angular Velocity: Radians per Second */
+        public double omega;
+
+        public Pose2d toPose() {
+            return new Pose2d(x, y, new Rotation2d(theta));
+        }
+    }
+
+    /* odd while the writer is partway through an update */
+    private volatile long sequence = 0;
+
+    private double timestamp;
+    private double x;
+    private double y;
+    private double theta;
+    private double vx;
+    private double vy;
+    private double omega;
+
+    /**
+     * @param timestamp Sample Time: (in Seconds)
+     * @param x Field X: (in Meters)
+     * @param y Field Y: (in Meters)
+     * @param theta Heading: (in Radians)
+     * @param vx Robot Relative Forward Velocity: (in Meters per Second)
+     * @param vy Robot Relative Left Velocity: (in Meters per Second)
+     * @param omega Counterclockwise Angular Velocity: (in Radians per Second)
+     */
+    public void publish(double timestamp, double x, double y, double theta, double vx, double vy, double omega) {
+        long start = sequence;
+        sequence = start + 1;
+        /* the field writes below can't be moved ahead of the odd counter */
+        VarHandle.storeStoreFence();
+
+        this.timestamp = timestamp;
+        this.x = x;
+        this.y = y;
+        this.theta = theta;
+        this.vx = vx;
+        this.vy = vy;
+        this.omega = omega;
+
+        /* volatile write, the field writes can't be moved after it */
+        sequence = start + 2;
+    }
+
+    /**
+     * Copies the latest update into out, spinning only while an update is being written.
+     * @return out
+     */
+    public Sample read(Sample out) {
+        while (true) {
+            long before = sequence;
+            if ((before & 1) == 0) {
+                out.timestamp = timestamp;
+                out.x = x;
+                out.y = y;
+                out.theta = theta;
+                out.vx = vx;
+                out.vy = vy;
+                out.omega = omega;
+
+                /* the field reads above can't be moved after the second counter read */
+                VarHandle.loadLoadFence();
+                if (sequence == before) {
+                    return out;
+                }
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * @return Number of updates published so far
+     */
+    public long getUpdateCount() {
+        return sequence >>> 1;
+    }
+}
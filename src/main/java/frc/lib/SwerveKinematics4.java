@@ -0,0 +1,114 @@
+package frc.lib;
+
+/**
+ * Allocation free four module swerve kinematics, modules ordered FL, FR, BL, BR.
+ */
+public class SwerveKinematics4 {
+
+    private final double[] moduleX;
+    private final double[] moduleY;
+    /* module centroid and spread about it, for the forward fit */
+    private final double centerX;
+    private final double centerY;
+    private final double sumRadiusSq;
+
+    /** Meters per Second, written by {@link #toModuleStates} */
+    public final double[] speeds = new double[4];
+    /** Radians, written by {@link #toModuleStates} */
+    public final double[] angles = new double[4];
+
+    /** Meters per Second, written by {@link #toChassisSpeeds} */
+    public double vx;
+    /** Meters per Second, written by {@link #toChassisSpeeds} */
+    public double vy;
+    /** Radians per Second, written by {@link #toChassisSpeeds} */
+    public double omega;
+
+    /**
+     * @param moduleX Forward Module Offsets: (in Meters), see Constants.SwerveConstants.moduleX
+     * @param moduleY Left Module Offsets: (in Meters), see Constants.SwerveConstants.moduleY
+     */
+    public SwerveKinematics4(double[] moduleX, double[] moduleY) {
+        this.moduleX = moduleX.clone();
+        this.moduleY = moduleY.clone();
+
+        double sumX = 0, sumY = 0;
+        for (int i = 0; i < 4; i++) {
+            sumX += moduleX[i];
+            sumY += moduleY[i];
+        }
+        centerX = sumX / 4.0;
+        centerY = sumY / 4.0;
+        double sumSq = 0;
+        for (int i = 0; i < 4; i++) {
+            double relX = moduleX[i] - centerX;
+            double relY = moduleY[i] - centerY;
+            sumSq += relX * relX + relY * relY;
+        }
+        sumRadiusSq = sumSq;
+    }
+
+    /**
+     * Fills {@link #speeds} and {@link #angles}, a stop keeps the previous angles.
+     * @param vx Forward Velocity: (in Meters per Second)
+     * @param vy Left Velocity: (in Meters per Second)
+     * @param omega Counterclockwise Angular Velocity: (in Radians per Second)
+     */
+    public void toModuleStates(double vx, double vy, double omega) {
+        if (vx == 0 && vy == 0 && omega == 0) {
+            for (int i = 0; i < 4; i++) {
+                speeds[i] = 0;
+            }
+            return;
+        }
+
+        for (int i = 0; i < 4; i++) {
+            double moduleVx = vx - omega * moduleY[i];
+            double moduleVy = vy + omega * moduleX[i];
+            speeds[i] = Math.sqrt(moduleVx * moduleVx + moduleVy * moduleVy);
+            if (speeds[i] > 1e-6) {
+                angles[i] = Math.atan2(moduleVy, moduleVx);
+            }
+        }
+    }
+
+    /**
+     * Same as SwerveDriveKinematics.desaturateWheelSpeeds.
+     * @param maxSpeed Max Module Speed: (in Meters per Second)
+     */
+    public void desaturate(double maxSpeed) {
+        double realMax = 0;
+        for (int i = 0; i < 4; i++) {
+            realMax = Math.max(realMax, Math.abs(speeds[i]));
+        }
+
+        if (realMax > maxSpeed) {
+            double scale = maxSpeed / realMax;
+            for (int i = 0; i < 4; i++) {
+                speeds[i] *= scale;
+            }
+        }
+    }
+
+    /**
+     * Fills {@link #vx}, {@link #vy} and {@link #omega}, same as SwerveDriveKinematics.toChassisSpeeds.
+     * @param moduleSpeeds Module Speeds: (in Meters per Second)
+     * @param moduleAngles Module Angles: (in Radians)
+     */
+    public void toChassisSpeeds(double[] moduleSpeeds, double[] moduleAngles) {
+        double sumVx = 0;
+        double sumVy = 0;
+        double sumOmega = 0;
+        for (int i = 0; i < 4; i++) {
+            double moduleVx = moduleSpeeds[i] * Math.cos(moduleAngles[i]);
+            double moduleVy = moduleSpeeds[i] * Math.sin(moduleAngles[i]);
+            sumVx += moduleVx;
+            sumVy += moduleVy;
+            sumOmega += (moduleX[i] - centerX) * moduleVy - (moduleY[i] - centerY) * moduleVx;
+        }
+        omega = sumOmega / sumRadiusSq;
+        /* the fit is about the module centroid, move it back to the robot center */
+        vx = sumVx / 4.0 + omega * centerY;
+        vy = sumVy / 4.0 - omega * centerX;
+    }
+}
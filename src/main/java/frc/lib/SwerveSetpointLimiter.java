@@ -0,0 +1,106 @@
+package frc.lib;
+
+import edu.wpi.first.math.MathUtil;
+
+/**
+ * Limits each module's drive acceleration and steer velocity from its last setpoint, allocation free.
+ */
+public class SwerveSetpointLimiter {
+
+    private final SwerveKinematics4 kinematics;
+    private double maxAcceleration;
+    private final double maxSteerVelocity;
+
+    /** Meters per Second, last setpoint written by {@link #calculate} or {@link #limit} */
+    public final double[] speeds = new double[4];
+    /** Radians, last setpoint written by {@link #calculate} or {@link #limit} */
+    public final double[] angles = new double[4];
+
+    /**
+     * @param kinematics Kinematics used to turn chassis speeds into module targets
+     * @param maxAcceleration Max Module Drive Acceleration: (in Meters per Second Squared)
+     * @param maxSteerVelocity Max Module Steer Velocity: (in Radians per Second)
+     */
+    public SwerveSetpointLimiter(SwerveKinematics4 kinematics, double maxAcceleration, double maxSteerVelocity) {
+        this.kinematics = kinematics;
+        this.maxAcceleration = maxAcceleration;
+        this.maxSteerVelocity = maxSteerVelocity;
+    }
+
+    /**
+     * Discretizes, desaturates and limits into {@link #speeds} and {@link #angles}.
+     * @param vx Forward Velocity: (in Meters per Second)
+     * @param vy Left Velocity: (in Meters per Second)
+     * @param omega Counterclockwise Angular Velocity: (in Radians per Second)
+     * @param maxSpeed Max Module Speed: (in Meters per Second)
+     * @param dt Loop Period: (in Seconds)
+     */
+    public void calculate(double vx, double vy, double omega, double maxSpeed, double dt) {
+        /* same twist as ChassisSpeeds.discretize, done on doubles */
+        double dTheta = omega * dt;
+        double halfDTheta = dTheta / 2.0;
+        double cosMinusOne = Math.cos(dTheta) - 1.0;
+        double halfThetaByTanOfHalfDTheta = Math.abs(cosMinusOne) < 1e-9
+            ? 1.0 - dTheta * dTheta / 12.0
+            : -(halfDTheta * Math.sin(dTheta)) / cosMinusOne;
+        double discreteVx = vx * halfThetaByTanOfHalfDTheta + vy * halfDTheta;
+        double discreteVy = -vx * halfDTheta + vy * halfThetaByTanOfHalfDTheta;
+
+        kinematics.toModuleStates(discreteVx, discreteVy, omega);
+        kinematics.desaturate(maxSpeed);
+        limit(kinematics.speeds, kinematics.angles, dt);
+    }
+
+    /**
+     * Limits each module from its last setpoint toward the given targets.
+     * @param targetSpeeds Target Module Speeds: (in Meters per Second)
+     * @param targetAngles Target Module Angles: (in Radians)
+     * @param dt Loop Period: (in Seconds)
+     */
+    public void limit(double[] targetSpeeds, double[] targetAngles, double dt) {
+        double maxSpeedStep = maxAcceleration * dt;
+        double maxAngleStep = maxSteerVelocity * dt;
+
+        for (int i = 0; i < 4; i++) {
+            double targetSpeed = targetSpeeds[i];
+            double targetAngle = targetAngles[i];
+
+            /* never steer more than 90 degrees from the last setpoint, reverse the wheel instead */
+            double angleError = MathUtil.angleModulus(targetAngle - angles[i]);
+            if (Math.abs(angleError) > Math.PI / 2.0) {
+                targetSpeed = -targetSpeed;
+                angleError = MathUtil.angleModulus(angleError + Math.PI);
+            }
+
+            /* a stopped module has no reason to steer */
+            if (targetSpeed == 0 && speeds[i] == 0) {
+                angleError = 0;
+            }
+
+            double angleStep = MathUtil.clamp(angleError, -maxAngleStep, maxAngleStep);
+            angles[i] = MathUtil.angleModulus(angles[i] + angleStep);
+
+            /* only drive the part of the target that lines up with where the wheel points */
+            double alignedSpeed = targetSpeed * Math.max(Math.cos(angleError - angleStep), 0.0);
+            speeds[i] += MathUtil.clamp(alignedSpeed - speeds[i], -maxSpeedStep, maxSpeedStep);
+        }
+    }
+
+    /**
+     * @param maxAcceleration Max Module Drive Acceleration: (in Meters per Second Squared)
+     */
+    public void setMaxAcceleration(double maxAcceleration) {
+        this.maxAcceleration = maxAcceleration;
+    }
+
+    /**
+     * Seeds one module's setpoint, use the measured state after the drivetrain has been idle.
+     * @param module Module Number
+     * @param speed Module Speed: (in Meters per Second)
+     * @param angle Module Angle: (in Radians)
+     */
+    public void reset(int module, double speed, double angle) {
+        speeds[module] = speed;
+        angles[module] = angle;
+    }
+}
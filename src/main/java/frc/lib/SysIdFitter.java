@@ -0,0 +1,293 @@
+package frc.lib;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+
+/**
+ * Least squares feedforward fit from SysId data, live or from a .wpilog with {@link #fromLog}.
+ * <pre>
+ *   V = kS sgn(v) + kV v + kA a             SIMPLE
+ *   V = kS sgn(v) + kV v + kA a + kG        ELEVATOR
+ *   V = kS sgn(v) + kV v + kA a + kG cos(x) ARM, x in rotations from horizontal
+ * </pre>
+ */
+public class SysIdFitter {
+
+    public enum Model { SIMPLE, ELEVATOR, ARM }
+
+    /** Seconds, a gap this long between samples starts a new test */
+    private static final double MAX_SAMPLE_GAP = 0.1;
+    /** samples slower than this carry no information about kS and are skipped */
+    private static final double MIN_VELOCITY = 1e-3;
+
+    private final Model model;
+    private final int terms;
+
+    /* normal equations */
+    private final double[][] xtx = new double[4][4];
+    private final double[] xty = new double[4];
+    private final double[] row = new double[4];
+    private double yty = 0;
+    private double sumY = 0;
+    private int samples = 0;
+
+    /* last two samples, the middle one is fit once its neighbours are known */
+    private int chain = 0;
+    private double t0, velocity0;
+    private double t1, volts1, position1, velocity1;
+
+    public double kS, kV, kA, kG, rSquared;
+
+    public SysIdFitter(Model model) {
+        this.model = model;
+        this.terms = model == Model.SIMPLE ? 3 : 4;
+    }
+
+    /**
+     * @param timestamp Sample Time: (in Seconds)
+     * @param voltage Applied Voltage: (in Volts)
+     * @param position Mechanism Position, rotations from horizontal for ARM, otherwise only used for logging
+     * @param velocity Mechanism Velocity, in the position units per second
+     */
+    public void addSample(double timestamp, double voltage, double position, double velocity) {
+        if (chain > 0 && timestamp - t1 > MAX_SAMPLE_GAP) {
+            chain = 0;
+        }
+
+        if (chain == 2 && timestamp > t0) {
+            accumulate(volts1, position1, velocity1, (velocity - velocity0) / (timestamp - t0));
+        }
+
+        t0 = t1;
+        velocity0 = velocity1;
+        t1 = timestamp;
+        volts1 = voltage;
+        position1 = position;
+        velocity1 = velocity;
+        chain = Math.min(chain + 1, 2);
+    }
+
+    private void accumulate(double voltage, double position, double velocity, double acceleration) {
+        if (Math.abs(velocity) < MIN_VELOCITY) {
+            return;
+        }
+
+        row[0] = Math.signum(velocity);
+        row[1] = velocity;
+        row[2] = acceleration;
+        if (model == Model.ELEVATOR) {
+            row[3] = 1.0;
+        } else if (model == Model.ARM) {
+            row[3] = Math.cos(position * 2 * Math.PI);
+        }
+
+        for (int i = 0; i < terms; i++) {
+            for (int j = 0; j < terms; j++) {
+                xtx[i][j] += row[i] * row[j];
+            }
+            xty[i] += row[i] * voltage;
+        }
+        yty += voltage * voltage;
+        sumY += voltage;
+        samples++;
+    }
+
+    /**
+     * Solves the normal equations into kS, kV, kA, kG and rSquared.
+     * @return false if there is not enough data for a fit
+     */
+    public boolean fit() {
+        if (samples < terms * 4) {
+            return false;
+        }
+
+        /* gaussian elimination with partial pivoting on a copy, the sums keep accumulating */
+        double[][] a = new double[terms][terms + 1];
+        for (int i = 0; i < terms; i++) {
+            System.arraycopy(xtx[i], 0, a[i], 0, terms);
+            a[i][terms] = xty[i];
+        }
+        for (int col = 0; col < terms; col++) {
+            int pivot = col;
+            for (int r = col + 1; r < terms; r++) {
+                if (Math.abs(a[r][col]) > Math.abs(a[pivot][col])) {
+                    pivot = r;
+                }
+            }
+            if (Math.abs(a[pivot][col]) < 1e-12) {
+                return false;
+            }
+            double[] swap = a[col]; a[col] = a[pivot]; a[pivot] = swap;
+            for (int r = 0; r < terms; r++) {
+                if (r == col) {
+                    continue;
+                }
+                double factor = a[r][col] / a[col][col];
+                for (int c = col; c <= terms; c++) {
+                    a[r][c] -= factor * a[col][c];
+                }
+            }
+        }
+        double[] beta = new double[4];
+        for (int i = 0; i < terms; i++) {
+            beta[i] = a[i][terms] / a[i][i];
+        }
+
+        kS = beta[0];
+        kV = beta[1];
+        kA = beta[2];
+        kG = beta[3];
+
+        /* SSE = y'y - 2 b'X'y + b'X'Xb, SST from the mean voltage */
+        double sse = yty;
+        for (int i = 0; i < terms; i++) {
+            sse -= 2 * beta[i] * xty[i];
+            for (int j = 0; j < terms; j++) {
+                sse += beta[i] * xtx[i][j] * beta[j];
+            }
+        }
+        double meanY = sumY / samples;
+        double sst = yty - samples * meanY * meanY;
+        rSquared = sst > 0 ? 1.0 - sse / sst : 0;
+        return true;
+    }
+
+    /**
+     * Fits and publishes the gains under the given SmartDashboard key.
+     * @param key Dashboard prefix, for example "Elevator/SysId"
+     */
+    public void publish(String key) {
+        SmartDashboard.putNumber(key + "/Samples", samples);
+        if (!fit()) {
+            return;
+        }
+        SmartDashboard.putNumber(key + "/kS", kS);
+        SmartDashboard.putNumber(key + "/kV", kV);
+        SmartDashboard.putNumber(key + "/kA", kA);
+        SmartDashboard.putNumber(key + "/kG", kG);
+        SmartDashboard.putNumber(key + "/R Squared", rSquared);
+    }
+
+    public int getSamples() {
+        return samples;
+    }
+
+    public void reset() {
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                xtx[i][j] = 0;
+            }
+            xty[i] = 0;
+        }
+        yty = 0;
+        sumY = 0;
+        samples = 0;
+        chain = 0;
+    }
+
+    /**
+     * Fits a motor's SysIdRoutineLog entries, one sample chain per matching entry suffix.
+     * @param path .wpilog file
+     * @param motor Motor name passed to SysIdRoutineLog.motor
+     */
+    public static SysIdFitter fromLog(String path, String motor, Model model) throws IOException {
+        DataLogReader reader = new DataLogReader(path);
+        if (!reader.isValid()) {
+            throw new IOException("Not a valid wpilog: " + path);
+        }
+
+        /* entry id to 0 voltage, 1 position, 2 velocity */
+        Map<Integer, Integer> kinds = new HashMap<>();
+        /* entry id to the chain of its suffix, one per motor */
+        Map<Integer, Chain> entryChains = new HashMap<>();
+        Map<String, Chain> chains = new LinkedHashMap<>();
+
+        for (DataLogRecord record : reader) {
+            if (record.isStart()) {
+                DataLogRecord.StartRecordData start = record.getStartData();
+                int kind = start.name.startsWith("voltage-") ? 0
+                    : start.name.startsWith("position-") ? 1
+                    : start.name.startsWith("velocity-") ? 2 : -1;
+                if (kind < 0) {
+                    continue;
+                }
+                String suffix = start.name.substring(start.name.indexOf('-') + 1);
+                if (!suffix.equals(motor) && !suffix.startsWith(motor + "-")) {
+                    continue;
+                }
+                kinds.put(start.entry, kind);
+                entryChains.put(start.entry, chains.computeIfAbsent(suffix, key -> new Chain(model)));
+                continue;
+            }
+            if (record.isControl()) {
+                continue;
+            }
+
+            Integer kind = kinds.get(record.getEntry());
+            if (kind == null) {
+                continue;
+            }
+            Chain chain = entryChains.get(record.getEntry());
+            /* the log callback writes voltage, then position, then velocity each loop */
+            switch (kind) {
+                case 0 -> chain.voltage = record.getDouble();
+                case 1 -> chain.position = record.getDouble();
+                default -> chain.fitter.addSample(record.getTimestamp() / 1e6, chain.voltage, chain.position, record.getDouble());
+            }
+        }
+
+        SysIdFitter fitter = new SysIdFitter(model);
+        for (Chain chain : chains.values()) {
+            fitter.merge(chain.fitter);
+        }
+        return fitter;
+    }
+
+    /* one logged motor's samples, its latest voltage and position wait for its velocity */
+    private static class Chain {
+        final SysIdFitter fitter;
+        double voltage = 0;
+        double position = 0;
+
+        Chain(Model model) {
+            fitter = new SysIdFitter(model);
+        }
+    }
+
+    /* adds another fit's normal equations to this one's, same model */
+    private void merge(SysIdFitter other) {
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < 4; j++) {
+                xtx[i][j] += other.xtx[i][j];
+            }
+            xty[i] += other.xty[i];
+        }
+        yty += other.yty;
+        sumY += other.sumY;
+        samples += other.samples;
+    }
+
+    /**
+     * Offline use on a laptop: {@code SysIdFitter <log.wpilog> <motor> [SIMPLE|ELEVATOR|ARM]}
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("usage: SysIdFitter <log.wpilog> <motor> [SIMPLE|ELEVATOR|ARM]");
+            return;
+        }
+        Model model = args.length > 2 ? Model.valueOf(args[2]) : Model.SIMPLE;
+        SysIdFitter fitter = fromLog(args[0], args[1], model);
+        if (!fitter.fit()) {
+            System.out.println("Not enough samples (" + fitter.getSamples() + ")");
+            return;
+        }
+        System.out.printf("samples=%d kS=%.5f kV=%.5f kA=%.5f kG=%.5f r2=%.4f%n",
+            fitter.getSamples(), fitter.kS, fitter.kV, fitter.kA, fitter.kG, fitter.rSquared);
+    }
+}
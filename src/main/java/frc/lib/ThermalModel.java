@@ -0,0 +1,66 @@
+package frc.lib;
+
+/**
+ * First order thermal model of one motor. Winding temperature rises with I^2 R heating and decays
+ * toward ambient with a single time constant:
+ * <pre>
+ *   dT/dt = heating * I^2 - (T - ambient) / tau
+ * </pre>
+ */
+public class ThermalModel {
+
+    private final double ambient;
+    private final double timeConstant;
+    private final double heating;
+    private final double temperatureLimit;
+    private final double correctionGain;
+
+    private double temperature;
+
+    /**
+     * @param ambient Ambient Temperature: (in Celsius)
+     * @param timeConstant Cooling Time Constant: (in Seconds)
+     * @param heating Heating Coefficient, winding resistance over thermal mass: (in Celsius per Amp Squared Second)
+     * @param temperatureLimit Temperature to stay under: (in Celsius)
+     * @param correctionGain Fraction of the measurement error removed per second
+     */
+    public ThermalModel(double ambient, double timeConstant, double heating, double temperatureLimit, double correctionGain) {
+        this.ambient = ambient;
+        this.timeConstant = timeConstant;
+        this.heating = heating;
+        this.temperatureLimit = temperatureLimit;
+        this.correctionGain = correctionGain;
+        this.temperature = ambient;
+    }
+
+    /**
+     * @param dt Time Since the Last Update: (in Seconds)
+     * @param statorCurrent Stator Current: (in Amps)
+     * @param measuredTemperature Device Temperature: (in Celsius)
+     */
+    public void update(double dt, double statorCurrent, double measuredTemperature) {
+        temperature += (heating * statorCurrent * statorCurrent - (temperature - ambient) / timeConstant) * dt;
+        temperature += (measuredTemperature - temperature) * Math.min(correctionGain * dt, 1.0);
+        temperature = Math.max(temperature, measuredTemperature);
+    }
+
+    /**
+     * @param remainingTime Time Left to Drive: (in Seconds)
+     * @return Constant current that reaches the temperature limit exactly at the end: (in Amps)
+     */
+    public double getSustainableCurrent(double remainingTime) {
+        double decay = Math.exp(-Math.max(remainingTime, 1e-3) / timeConstant);
+        double headroom = temperatureLimit - ambient - (temperature - ambient) * decay;
+        if (headroom <= 0) {
+            return 0;
+        }
+        return Math.sqrt(headroom / (heating * timeConstant * (1 - decay)));
+    }
+
+    /**
+     * @return Estimated Winding Temperature: (in Celsius)
+     */
+    public double getTemperature() {
+        return temperature;
+    }
+}
@@ -2,6 +2,7 @@ package frc.robot;
 
 import com.ctre.phoenix6.configs.CANcoderConfiguration;
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
 
 public final class CTREConfigs {
     public TalonFXConfiguration swerveAngleFXConfig = new TalonFXConfiguration();
@@ -17,8 +18,16 @@ public final class CTREConfigs {
         swerveAngleFXConfig.MotorOutput.Inverted = Constants.SwerveConstants.angleMotorInvert;
         swerveAngleFXConfig.MotorOutput.NeutralMode = Constants.SwerveConstants.angleNeutralMode;
 
-        /* Gear Ratio and Wrapping Config */
-        swerveAngleFXConfig.Feedback.SensorToMechanismRatio = Constants.SwerveConstants.angleGearRatio;
+        /* Gear Ratio and Wrapping Config
+         * With a CANcoder as feedback the CANcoder is on the mechanism, the gear ratio sits between the
+         * rotor and it. Each module copies this and sets FeedbackRemoteSensorID to its own CANcoder */
+        swerveAngleFXConfig.Feedback.FeedbackSensorSource = Constants.SwerveConstants.angleFeedbackSource;
+        if (Constants.SwerveConstants.angleFeedbackSource == FeedbackSensorSourceValue.RotorSensor) {
+            swerveAngleFXConfig.Feedback.SensorToMechanismRatio = Constants.SwerveConstants.angleGearRatio;
+        } else {
+            swerveAngleFXConfig.Feedback.RotorToSensorRatio = Constants.SwerveConstants.angleGearRatio;
+            swerveAngleFXConfig.Feedback.SensorToMechanismRatio = 1.0;
+        }
         swerveAngleFXConfig.ClosedLoopGeneral.ContinuousWrap = true;
         
         /* Current Limiting */
@@ -29,6 +38,20 @@ public final class CTREConfigs {
         swerveAngleFXConfig.Slot0.kP = Constants.SwerveConstants.angleKP;
         swerveAngleFXConfig.Slot0.kI = Constants.SwerveConstants.angleKI;
         swerveAngleFXConfig.Slot0.kD = Constants.SwerveConstants.angleKD;
+        swerveAngleFXConfig.Slot0.kS = Constants.SwerveConstants.angleKS;
+        swerveAngleFXConfig.Slot0.kV = Constants.SwerveConstants.angleKV;
+        swerveAngleFXConfig.Slot0.kA = Constants.SwerveConstants.angleKA;
+
+        /* Motion Magic Config, only used with angleMotionMagic */
+        swerveAngleFXConfig.MotionMagic.MotionMagicCruiseVelocity = Constants.SwerveConstants.angleMotionMagicCruiseVelocity;
+        swerveAngleFXConfig.MotionMagic.MotionMagicAcceleration = Constants.SwerveConstants.angleMotionMagicAcceleration;
+
+        /* Torque Current FOC PID Config */
+        swerveAngleFXConfig.Slot1.kP = Constants.SwerveConstants.angleTorqueKP;
+        swerveAngleFXConfig.Slot1.kI = Constants.SwerveConstants.angleTorqueKI;
+        swerveAngleFXConfig.Slot1.kD = Constants.SwerveConstants.angleTorqueKD;
+        swerveAngleFXConfig.TorqueCurrent.PeakForwardTorqueCurrent = Constants.SwerveConstants.anglePeakTorqueCurrent;
+        swerveAngleFXConfig.TorqueCurrent.PeakReverseTorqueCurrent = -Constants.SwerveConstants.anglePeakTorqueCurrent;
 
         /** Swerve Drive Motor Configuration */
         /* Motor Inverts and Neutral Mode */
@@ -41,12 +64,23 @@ public final class CTREConfigs {
         /* Current Limiting */
         swerveDriveFXConfig.CurrentLimits.SupplyCurrentLimitEnable = Constants.SwerveConstants.driveEnableCurrentLimit;
         swerveDriveFXConfig.CurrentLimits.SupplyCurrentLimit = Constants.SwerveConstants.driveCurrentLimit;
+        swerveDriveFXConfig.CurrentLimits.StatorCurrentLimitEnable = true;
+        swerveDriveFXConfig.CurrentLimits.StatorCurrentLimit = Constants.SwerveConstants.driveStatorCurrentLimit;
 
         /* PID Config */
         swerveDriveFXConfig.Slot0.kP = Constants.SwerveConstants.driveKP;
         swerveDriveFXConfig.Slot0.kI = Constants.SwerveConstants.driveKI;
         swerveDriveFXConfig.Slot0.kD = Constants.SwerveConstants.driveKD;
 
+        /* Torque Current FOC PID Config */
+        swerveDriveFXConfig.Slot1.kP = Constants.SwerveConstants.driveTorqueKP;
+        swerveDriveFXConfig.Slot1.kI = Constants.SwerveConstants.driveTorqueKI;
+        swerveDriveFXConfig.Slot1.kD = Constants.SwerveConstants.driveTorqueKD;
+        swerveDriveFXConfig.Slot1.kS = Constants.SwerveConstants.driveTorqueKS;
+        swerveDriveFXConfig.Slot1.kA = Constants.SwerveConstants.driveTorqueKA;
+        swerveDriveFXConfig.TorqueCurrent.PeakForwardTorqueCurrent = Constants.SwerveConstants.drivePeakTorqueCurrent;
+        swerveDriveFXConfig.TorqueCurrent.PeakReverseTorqueCurrent = -Constants.SwerveConstants.drivePeakTorqueCurrent;
+
         /* Open and Closed Loop Ramping */
         swerveDriveFXConfig.OpenLoopRamps.DutyCycleOpenLoopRampPeriod = Constants.SwerveConstants.openLoopRamp;
         swerveDriveFXConfig.OpenLoopRamps.VoltageOpenLoopRampPeriod = Constants.SwerveConstants.openLoopRamp;
@@ -1,5 +1,6 @@
 package frc.robot;
 
+import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
 import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 import com.ctre.phoenix6.signals.SensorDirectionValue;
@@ -38,6 +39,8 @@ public final class Constants {
         public static final double FORWARD_LIMIT = 2.2;
         public static final double REVERSE_LIMIT = .0;
         public static final double G = 0;
+        public static final double HORIZONTAL_POSITION = Double.NaN; // canandmag position with the pivot level, NaN until measured, sysid won't run without it
+        public static final double ENCODER_RATIO = Double.NaN; // canandmag rotations per pivot rotation, NaN until measured, sysid won't run without it
     }
 
     public static final class IntakeRollerConstants {
@@ -76,6 +79,111 @@ public final class Constants {
         public static final double REVERSE_LIMIT = 0;
     }
 
+    /* Lumped mass model for the tipping limits, masses in kg and distances in meters */
+    public static final class CenterOfMassConstants {
+        public static final double CHASSIS_MASS = 45;
+        public static final double CHASSIS_COM_HEIGHT = 0.15;
+        public static final double CARRIAGE_MASS = 6;
+        /** carriage (and arm pivot) height with the elevator at 0 */
+        public static final double CARRIAGE_STOWED_HEIGHT = 0.45;
+        /** elevator canandmag rotations to carriage travel */
+        public static final double ELEVATOR_METERS_PER_ROTATION = 0.25;
+        public static final double ARM_MASS = 3;
+        /** pivot to arm center of mass */
+        public static final double ARM_COM_LENGTH = 0.3;
+        /** arm pivot ahead of the robot center */
+        public static final double ARM_PIVOT_OFFSET = 0.05;
+
+        /** robot center to the wheel contact patches */
+        public static final double SUPPORT_HALF_WIDTH = 0.29;
+        /** fraction of the tipping acceleration we allow */
+        public static final double TIP_SAFETY_FACTOR = 0.7;
+        /** m/s^2, never limit below this so the robot can still drive itself off a tilt */
+        public static final double MIN_ACCELERATION = 1.5;
+        /** top speed is limited so the robot can stop within this distance at the allowed acceleration */
+        public static final double STOPPING_DISTANCE = 1.5;
+    }
+
+    /* Drivetrain telemetry publish periods, in seconds */
+    public static final class TelemetryConstants {
+        public static final double POSE_PERIOD = 0.02;
+        public static final double MODULE_STATES_PERIOD = 0.02;
+        public static final double FIELD_PERIOD = 0.1;
+        public static final double STATUS_PERIOD = 0.25;
+    }
+
+    public static final class VisionConstants {
+        /** Limelights whose MegaTag2 pose is fused into the pose estimator */
+        public static final String[] LOCALIZATION_LIMELIGHTS = {"limelight-back"};
+        /** Limelight the tag relative reef alignment drives off */
+        public static final String ALIGN_LIMELIGHT = "limelight-front";
+
+        /** MegaTag2 XY std dev, Meters */
+        public static final double XY_STD_DEV = 0.7;
+        /** MegaTag2 XY std dev right after wheel slip or a collision, Meters */
+        public static final double SLIP_XY_STD_DEV = 0.2;
+        /**
+         * MegaTag2 heading std dev, Radians. MegaTag2 solves with the yaw the robot sent it, so its
+         * heading is the gyro's and vision doesn't correct heading.
+         */
+        public static final double HEADING_STD_DEV = 9999999;
+    }
+
+    public static final class DriveToPoseConstants {
+        public static final double DRIVE_P = 3.0;
+        public static final double DRIVE_I = 0;
+        public static final double DRIVE_D = 0;
+        /** Meters per Second */
+        public static final double DRIVE_MAX_VELOCITY = 3.0;
+        /** Meters per Second Squared */
+        public static final double DRIVE_MAX_ACCELERATION = 4.0;
+        public static final double THETA_P = 5.0;
+        public static final double THETA_I = 0;
+        public static final double THETA_D = 0;
+        /** Radians per Second */
+        public static final double THETA_MAX_VELOCITY = 6.0;
+        /** Radians per Second Squared */
+        public static final double THETA_MAX_ACCELERATION = 12.0;
+
+        /** Meters */
+        public static final double DRIVE_TOLERANCE = 0.02;
+        /** Radians */
+        public static final double THETA_TOLERANCE = Units.degreesToRadians(1.0);
+        /** Meters per Second */
+        public static final double DRIVE_VELOCITY_TOLERANCE = 0.05;
+        /** Radians per Second */
+        public static final double THETA_VELOCITY_TOLERANCE = 0.1;
+
+        /** Meters from the reef tag to the robot center when scoring */
+        public static final double REEF_ALIGN_DISTANCE = 0.34;
+        /** Meters left or right of the tag for each branch */
+        public static final double REEF_ALIGN_OFFSET = 0.16;
+    }
+
+    public static final class HeadingConstants {
+        public static final double P = 5.0;
+        public static final double I = 0;
+        public static final double D = 0.2;
+        /** Radians per Second */
+        public static final double MAX_VELOCITY = 8.0;
+        /** Radians per Second Squared */
+        public static final double MAX_ACCELERATION = 20.0;
+        /** Radians */
+        public static final double TOLERANCE = Units.degreesToRadians(1.0);
+
+        /** Field relative headings square to each reef face */
+        public static final Rotation2d[] REEF_FACE_ANGLES = {
+            Rotation2d.fromDegrees(0), Rotation2d.fromDegrees(60), Rotation2d.fromDegrees(120),
+            Rotation2d.fromDegrees(180), Rotation2d.fromDegrees(-120), Rotation2d.fromDegrees(-60)
+        };
+
+        /** Field relative headings square to the coral stations, both alliances */
+        public static final Rotation2d[] CORAL_STATION_ANGLES = {
+            Rotation2d.fromDegrees(54), Rotation2d.fromDegrees(-54),
+            Rotation2d.fromDegrees(126), Rotation2d.fromDegrees(-126)
+        };
+    }
+
     public static final class ClimberConstants {
         public static final double CURRENT_LIMIT = 30;
         public static final double CLIMBER_SPEED = .5;
@@ -90,6 +198,7 @@ public final class Constants {
         public static final double FORWARD_LIMIT = 2.2;
         public static final double REVERSE_LIMIT = .0;
         public static final double G = 0;
+        public static final double UP_POSITION = 1.986328125; // canandmag position with the arm straight up, 0 is hanging down
     }
 
     public static final class SwerveConstants {
@@ -105,11 +214,17 @@ public final class Constants {
 
         /* Swerve Kinematics 
          * No need to ever change this unless you are not doing a traditional rectangular/square 4 module swerve */
-         public static final SwerveDriveKinematics swerveKinematics = new SwerveDriveKinematics(
+        public static final Translation2d[] moduleTranslations = {
             new Translation2d(wheelBase / 2.0, trackWidth / 2.0),
             new Translation2d(wheelBase / 2.0, -trackWidth / 2.0),
             new Translation2d(-wheelBase / 2.0, trackWidth / 2.0),
-            new Translation2d(-wheelBase / 2.0, -trackWidth / 2.0));
+            new Translation2d(-wheelBase / 2.0, -trackWidth / 2.0)};
+        public static final SwerveDriveKinematics swerveKinematics = new SwerveDriveKinematics(moduleTranslations);
+        /** moduleTranslations as Meters, for the primitive kinematics, slip detection and sim. Don't modify */
+        public static final double[] moduleX = {
+            moduleTranslations[0].getX(), moduleTranslations[1].getX(), moduleTranslations[2].getX(), moduleTranslations[3].getX()};
+        public static final double[] moduleY = {
+            moduleTranslations[0].getY(), moduleTranslations[1].getY(), moduleTranslations[2].getY(), moduleTranslations[3].getY()};
 
         /* Module Gear Ratios */
         public static final double driveGearRatio = chosenModule.driveGearRatio;
@@ -122,6 +237,13 @@ public final class Constants {
         /* Angle Encoder Invert */
         public static final SensorDirectionValue cancoderInvert = chosenModule.cancoderInvert;
 
+        /* Angle Feedback
+         * RotorSensor seeds the rotor from the CANcoder once at boot. Opt in to RemoteCANcoder to close the
+         * steer loop on the CANcoder, or FusedCANcoder (Pro) to fuse it with the rotor */
+        public static final FeedbackSensorSourceValue angleFeedbackSource = FeedbackSensorSourceValue.RotorSensor;
+        /** Hz, a remote CANcoder's position frame is the steer loop's feedback so it is sent faster */
+        public static final double remoteCANcoderFrequency = 250.0;
+
         /* Swerve Current Limiting */
         public static final int angleCurrentLimit = 25;
         public static final int angleCurrentThreshold = 40;
@@ -142,6 +264,17 @@ public final class Constants {
         public static final double angleKP = 10.0;
         public static final double angleKI = 0.0;
         public static final double angleKD = 0.0;
+        /* Starting values, refit with the steer SysId routine. Only profiled steering uses them */
+        public static final double angleKS = 0.15;
+        public static final double angleKV = 2.5;
+        public static final double angleKA = 0.0;
+
+        /* Profiled Steering, Motion Magic caps the steer acceleration and so the current spike on every flip */
+        public static final boolean angleMotionMagic = false;
+        /** Rotations per Second */
+        public static final double angleMotionMagicCruiseVelocity = 4.0;
+        /** Rotations per Second Squared */
+        public static final double angleMotionMagicAcceleration = 40.0;
 
         /* Drive Motor PID Values*/
         public static final double driveKP = 1;
@@ -149,6 +282,41 @@ public final class Constants {
         public static final double driveKD = 0.01;
         public static final double driveKF = 0.0;
 
+        /* Closed Loop Output, TORQUE_CURRENT_FOC uses the Slot1 gains below */
+        public static final SwerveModule.ClosedLoopOutput closedLoopOutput = SwerveModule.ClosedLoopOutput.VOLTAGE;
+
+        /* Angle Motor Torque Current PID Values (Amps per Rotation) */
+        public static final double angleTorqueKP = 300.0;
+        public static final double angleTorqueKI = 0.0;
+        public static final double angleTorqueKD = 15.0;
+
+        /* Drive Motor Torque Current Values (Amps per Wheel Rotation per Second)
+         * kA is estimated from robot mass, wheel radius and the Kraken torque constant until SYSID is rerun in torque mode */
+        public static final double driveTorqueKP = 8.0;
+        public static final double driveTorqueKI = 0.0;
+        public static final double driveTorqueKD = 0.0;
+        public static final double driveTorqueKS = 2.5;
+        public static final double driveTorqueKA = 2.0;
+
+        /* Torque Current Limits (Amps) */
+        public static final double anglePeakTorqueCurrent = 40;
+        public static final double drivePeakTorqueCurrent = 80;
+
+        /* Drive Thermal Derating
+         * Stator limit is lowered from driveStatorCurrentLimit toward what the model says the motor
+         * can hold for the rest of the match without passing driveTemperatureLimit */
+        public static final double driveStatorCurrentLimit = 80;
+        public static final double driveMinStatorCurrentLimit = 40;
+        public static final double driveCurrentDerateRate = 2.0; // Amps per Second
+        public static final double driveCurrentLimitDeadband = 2.0; // Amps, smaller changes are not sent
+        public static final double driveAmbientTemperature = 25.0; // Celsius
+        public static final double driveTemperatureLimit = 85.0; // Celsius
+        public static final double driveThermalTimeConstant = 300.0; // Seconds
+        public static final double driveHeatingCoefficient = 7.0e-5; // Celsius per Amp Squared Second, ~R / thermal mass of a Kraken X60
+        public static final double driveThermalCorrection = 0.05; // per Second
+        public static final double matchLength = 150.0; // Seconds
+        public static final double teleopLength = 135.0; // Seconds
+
         /* Drive Motor Characterization Values From SYSID */
         public static final double driveKS = 0.53114;
         public static final double driveKV = 2.3423;
@@ -160,6 +328,22 @@ public final class Constants {
         /** Radians per Second */
         public static final double maxAngularVelocity = 10.0;
 
+        /* Setpoint Limits */
+        /** Meters per Second Squared, roughly what the wheels can put down before slipping */
+        public static final double maxModuleAcceleration = 11.0;
+        /** Radians per Second, a bit under the steer motor's free speed through the angle ratio */
+        public static final double maxModuleSteerVelocity = 25.0;
+
+        /* Odometry */
+        /** Hz, the odometry thread samples every module and the gyro at this rate */
+        public static final double odometryFrequency = 250.0;
+
+        /* Control Thread */
+        /** Runs drive goals and module setpoints on their own thread instead of the 50 Hz main loop */
+        public static final boolean useControlThread = false;
+        /** Hz, the control thread re-runs the drive goal and sends module setpoints at this rate */
+        public static final double controlFrequency = 200.0;
+
         /* Neutral Modes */
         public static final NeutralModeValue angleNeutralMode = NeutralModeValue.Brake;
         public static final NeutralModeValue driveNeutralMode = NeutralModeValue.Brake;
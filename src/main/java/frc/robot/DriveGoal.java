@@ -0,0 +1,58 @@
+package frc.robot;
+
+import frc.robot.subsystems.Swerve;
+
+/**
+ * Turns a drive() goal into robot relative speeds without allocating. Not thread safe.
+ */
+public class DriveGoal {
+
+    /* goal after the multiplier and cap, handed to the controller */
+    private final double[] controlSpeeds = new double[3];
+
+    /** Meters per Second, written by {@link #resolve} */
+    public double vx;
+    /** Meters per Second, written by {@link #resolve} */
+    public double vy;
+    /** Radians per Second, written by {@link #resolve} */
+    public double omega;
+
+    /**
+     * The multiplier and cap shape the stick goal only, controller output is used as is.
+     * @param goalSpeeds drive() goal as {vx, vy, omega}
+     * @param fieldRelative Whether the goal is field relative
+     * @param controller Registered controller, or null
+     * @param x Field X: (in Meters)
+     * @param y Field Y: (in Meters)
+     * @param heading Heading: (in Radians)
+     * @param yawRate Counterclockwise Yaw Rate: (in Radians per Second)
+     * @param multiplier Teleop Speed Multiplier
+     * @param speedCap Teleop Top Speed: (in Meters per Second)
+     */
+    public void resolve(double[] goalSpeeds, boolean fieldRelative, Swerve.DriveController controller,
+            double x, double y, double heading, double yawRate, double multiplier, double speedCap) {
+        controlSpeeds[0] = goalSpeeds[0] * multiplier;
+        controlSpeeds[1] = goalSpeeds[1] * multiplier;
+        controlSpeeds[2] = goalSpeeds[2] * multiplier;
+        double translationSpeed = Math.hypot(controlSpeeds[0], controlSpeeds[1]);
+        if (translationSpeed > speedCap) {
+            controlSpeeds[0] *= speedCap / translationSpeed;
+            controlSpeeds[1] *= speedCap / translationSpeed;
+        }
+        if (controller != null) {
+            controller.calculate(x, y, heading, yawRate, controlSpeeds);
+        }
+
+        vx = controlSpeeds[0];
+        vy = controlSpeeds[1];
+        omega = controlSpeeds[2];
+        if (fieldRelative) {
+            /* same rotation as ChassisSpeeds.fromFieldRelativeSpeeds */
+            double cos = Math.cos(heading);
+            double sin = Math.sin(heading);
+            double robotX = vx * cos + vy * sin;
+            vy = -vx * sin + vy * cos;
+            vx = robotX;
+        }
+    }
+}
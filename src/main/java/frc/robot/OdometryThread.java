@@ -0,0 +1,178 @@
+package frc.robot;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.CANBus;
+import com.ctre.phoenix6.StatusCode;
+import com.ctre.phoenix6.StatusSignal;
+
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.LinearAcceleration;
+import edu.wpi.first.wpilibj.Threads;
+import edu.wpi.first.wpilibj.Timer;
+import frc.lib.Conversions;
+import frc.lib.PoseSnapshot;
+
+/**
+ * Feeds timestamped module and gyro samples through a {@link SlipDetector} into the pose estimator
+ * at a fixed rate, publishing each estimate to a {@link PoseSnapshot}.
+ */
+public class OdometryThread extends Thread {
+
+    private final SwerveModule[] swerveModules;
+    private final StatusSignal<Angle> gyroYaw;
+    private final StatusSignal<AngularVelocity> gyroRate;
+    private final StatusSignal<LinearAcceleration> accelX;
+    private final StatusSignal<LinearAcceleration> accelY;
+    private final SlipDetector slipDetector;
+    private final double[] wheelSpeeds;
+    private final BaseStatusSignal[] allSignals;
+    private final SwerveDrivePoseEstimator poseEstimator;
+    private final PoseSnapshot poseSnapshot;
+    private final Object odometryLock;
+    private final double frequency;
+    private final boolean isCANFD;
+
+    /* last sample, only touched while holding odometryLock */
+    private final SwerveModulePosition[] lastPositions;
+    private Rotation2d lastYaw;
+
+    private volatile boolean running = true;
+    private volatile double measuredFrequency = 0;
+    private volatile int failedSamples = 0;
+    private volatile double lastYawRate = 0;
+
+    /**
+     * @param swerveModules Modules to sample, indexed by module number
+     * @param gyroYaw Yaw signal owned by this thread (clone it from the gyro)
+     * @param gyroRate Yaw rate signal owned by this thread (clone it from the gyro)
+     * @param accelX Forward acceleration signal owned by this thread (clone it from the gyro)
+     * @param accelY Left acceleration signal owned by this thread (clone it from the gyro)
+     * @param slipDetector Detector that corrects each sample before it reaches the estimator
+     * @param poseEstimator Estimator fed with every sample
+     * @param poseSnapshot Snapshot published after every sample
+     * @param odometryLock Lock guarding every access to the estimator
+     * @param frequency Sample rate (in Hz)
+     */
+    public OdometryThread(SwerveModule[] swerveModules, StatusSignal<Angle> gyroYaw, StatusSignal<AngularVelocity> gyroRate, StatusSignal<LinearAcceleration> accelX, StatusSignal<LinearAcceleration> accelY, SlipDetector slipDetector, SwerveDrivePoseEstimator poseEstimator, PoseSnapshot poseSnapshot, Object odometryLock, double frequency) {
+        super("Swerve Odometry");
+        setDaemon(true);
+
+        this.swerveModules = swerveModules;
+        this.gyroYaw = gyroYaw;
+        this.gyroRate = gyroRate;
+        this.accelX = accelX;
+        this.accelY = accelY;
+        this.slipDetector = slipDetector;
+        this.poseEstimator = poseEstimator;
+        this.poseSnapshot = poseSnapshot;
+        this.odometryLock = odometryLock;
+        this.frequency = frequency;
+        this.isCANFD = new CANBus("cani").isNetworkFD();
+
+        int signalsPerModule = swerveModules[0].getOdometrySignals().length;
+        allSignals = new BaseStatusSignal[swerveModules.length * signalsPerModule + 4];
+        lastPositions = new SwerveModulePosition[swerveModules.length];
+        wheelSpeeds = new double[swerveModules.length];
+        for (SwerveModule mod : swerveModules) {
+            System.arraycopy(mod.getOdometrySignals(), 0, allSignals, mod.moduleNumber * signalsPerModule, signalsPerModule);
+        }
+        allSignals[allSignals.length - 4] = gyroYaw;
+        allSignals[allSignals.length - 3] = gyroRate;
+        allSignals[allSignals.length - 2] = accelX;
+        allSignals[allSignals.length - 1] = accelY;
+
+        BaseStatusSignal.setUpdateFrequencyForAll(frequency, allSignals);
+        BaseStatusSignal.refreshAll(allSignals);
+        samplePositions(Timer.getFPGATimestamp());
+        publishSnapshot(Timer.getFPGATimestamp());
+    }
+
+    @Override
+    public void run() {
+        Threads.setCurrentThreadPriority(true, 1);
+
+        double lastSampleTime = Timer.getFPGATimestamp();
+        while (running) {
+            StatusCode status;
+            if (isCANFD) {
+                status = BaseStatusSignal.waitForAll(2.0 / frequency, allSignals);
+            } else {
+                Timer.delay(1.0 / frequency);
+                status = BaseStatusSignal.refreshAll(allSignals);
+            }
+
+            if (!status.isOK()) {
+                failedSamples++;
+                continue;
+            }
+
+            /* samples are compensated to now, so they are stamped with now */
+            double now = Timer.getFPGATimestamp();
+
+            synchronized (odometryLock) {
+                samplePositions(now);
+                poseEstimator.updateWithTime(now, lastYaw, lastPositions);
+                publishSnapshot(now);
+            }
+
+            /* low pass the measured rate so it reads steadily on the dashboard */
+            measuredFrequency = measuredFrequency * 0.9 + (1.0 / Math.max(now - lastSampleTime, 1e-4)) * 0.1;
+            lastSampleTime = now;
+        }
+    }
+
+    private void samplePositions(double timestamp) {
+        for (SwerveModule mod : swerveModules) {
+            lastPositions[mod.moduleNumber] = mod.sampleOdometryPosition();
+            wheelSpeeds[mod.moduleNumber] = mod.sampleOdometrySpeed();
+        }
+        slipDetector.update(timestamp, lastPositions, wheelSpeeds, accelX.getValueAsDouble(), accelY.getValueAsDouble());
+        lastYaw = Rotation2d.fromDegrees(Conversions.latencyCompensate(gyroYaw.getValueAsDouble(), gyroRate.getValueAsDouble(), gyroYaw.getTimestamp().getLatency()));
+        lastYawRate = Units.degreesToRadians(gyroRate.getValueAsDouble());
+    }
+
+    /**
+     * Publishes the current estimate, hold the odometry lock.
+     * @param timestamp Estimate Time: (in Seconds)
+     */
+    public void publishSnapshot(double timestamp) {
+        Pose2d pose = poseEstimator.getEstimatedPosition();
+        poseSnapshot.publish(timestamp, pose.getX(), pose.getY(), pose.getRotation().getRadians(), slipDetector.getFitVx(), slipDetector.getFitVy(), lastYawRate);
+    }
+
+    /** Must be called while holding the odometry lock. */
+    public SwerveModulePosition[] getLastPositions() {
+        return lastPositions;
+    }
+
+    /** Must be called while holding the odometry lock. */
+    public Rotation2d getLastYaw() {
+        return lastYaw;
+    }
+
+    /**
+     * @return Counterclockwise Yaw Rate from the last sample: (in Radians per Second), safe from any thread
+     */
+    public double getLastYawRate() {
+        return lastYawRate;
+    }
+
+    public double getMeasuredFrequency() {
+        return measuredFrequency;
+    }
+
+    public int getFailedSamples() {
+        return failedSamples;
+    }
+
+    public void stopThread() {
+        running = false;
+    }
+
+}
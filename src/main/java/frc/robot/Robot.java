@@ -6,6 +6,7 @@ package frc.robot;
 
 import com.reduxrobotics.canand.CanandEventLoop;
 
+import edu.wpi.first.wpilibj.DataLogManager;
 import edu.wpi.first.wpilibj.DriverStation;
 import edu.wpi.first.wpilibj.GenericHID.RumbleType;
 import edu.wpi.first.wpilibj.RobotController;
@@ -14,8 +15,10 @@ import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.lib.ControlOutput;
 import frc.lib.Elastic;
 import frc.lib.Elastic.Notification;
+import frc.lib.LimelightHttp;
 
 /**
  * The VM is configured to automatically run this class, and to call the functions corresponding to
@@ -39,6 +42,8 @@ public class Robot extends TimedRobot {
     // Instantiate our RobotContainer.  This will perform all our button bindings, and put our
     // autonomous chooser on the dashboard.
     CanandEventLoop.getInstance();
+    // local .wpilog on the usb stick / rio, sysid tests and networktables land here for SysIdFitter
+    DataLogManager.start();
     robotContainer = new RobotContainer();
   }
 
@@ -77,6 +82,8 @@ public class Robot extends TimedRobot {
 
     SmartDashboard.putNumber("Voltage", RobotController.getBatteryVoltage());
     CommandScheduler.getInstance().run();
+    ControlOutput.publishStats();
+    LimelightHttp.publishStats();
 
     if(DriverStation.isDSAttached()) {
       SmartDashboard.putNumber("Match Time", DriverStation.getMatchTime());
@@ -11,7 +11,9 @@ import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
 import edu.wpi.first.wpilibj2.command.SequentialCommandGroup;
 import edu.wpi.first.wpilibj2.command.button.CommandXboxController;
+import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
 import frc.robot.commands.Intake;
+import frc.robot.commands.auto.AutoAlignToReef;
 import frc.robot.commands.auto.AutoAlignToReefTagRelative;
 import frc.robot.commands.auto.AutoCoralIntake;
 import frc.robot.commands.auto.AutoCoralOuttake;
@@ -65,6 +67,8 @@ public class RobotContainer {
 
     public RobotContainer() {
 
+        swerve.setCenterOfMassSuppliers(stateMachine::getCenterOfMassHeight, stateMachine::getCenterOfMassOffset);
+
         swerve.setDefaultCommand(
             new TeleopSwerve(
                 swerve,
@@ -72,7 +76,9 @@ public class RobotContainer {
                 () -> -driver.getRawAxis(leftX), 
                 () -> -driver.getRawAxis(rightX), 
                 () -> driver.getHID().getXButton(),
-                () -> false
+                () -> false,
+                () -> driver.getHID().getYButton(),
+                () -> driver.getHID().getRightBumperButton()
             )
         );
 
@@ -121,8 +127,8 @@ public class RobotContainer {
         NamedCommands.registerCommand("Algae Shoot", new InstantCommand(() -> stateMachine.requestState(StateMachine.ALGAE_SHOOT)));
         NamedCommands.registerCommand("Algae Process", new InstantCommand(() -> stateMachine.requestState(StateMachine.ALGAE_PROCESS)));
         NamedCommands.registerCommand("Stow", new InstantCommand(() -> stateMachine.requestState(StateMachine.STOW)));
-        NamedCommands.registerCommand("Align Right", new AutoAlignToReefTagRelative(true, swerve).withTimeout(3));
-        NamedCommands.registerCommand("Align Left", new AutoAlignToReefTagRelative(false, swerve).withTimeout(3));
+        NamedCommands.registerCommand("Align Right", new AutoAlignToReef(true, swerve).withTimeout(3));
+        NamedCommands.registerCommand("Align Left", new AutoAlignToReef(false, swerve).withTimeout(3));
         NamedCommands.registerCommand("Shoot", autoCoralOuttake);
         NamedCommands.registerCommand("Intake", autoCoralIntake);
 
@@ -130,6 +136,24 @@ public class RobotContainer {
         SmartDashboard.putData("Auto", autoChooser);
 
         configureButtonBindings();
+        configureSysId();
+    }
+
+    /* sysid tests as dashboard buttons, fitted gains show up under <Subsystem>/SysId when each test ends */
+    private void configureSysId() {
+        for (SysIdRoutine.Direction direction : SysIdRoutine.Direction.values()) {
+            String suffix = direction == SysIdRoutine.Direction.kForward ? " Forward" : " Reverse";
+            SmartDashboard.putData("SysId/Drive Quasistatic" + suffix, swerve.sysIdDriveQuasistatic(direction));
+            SmartDashboard.putData("SysId/Drive Dynamic" + suffix, swerve.sysIdDriveDynamic(direction));
+            SmartDashboard.putData("SysId/Steer Quasistatic" + suffix, swerve.sysIdSteerQuasistatic(direction));
+            SmartDashboard.putData("SysId/Steer Dynamic" + suffix, swerve.sysIdSteerDynamic(direction));
+            SmartDashboard.putData("SysId/Elevator Quasistatic" + suffix, elevator.sysIdQuasistatic(direction));
+            SmartDashboard.putData("SysId/Elevator Dynamic" + suffix, elevator.sysIdDynamic(direction));
+            SmartDashboard.putData("SysId/Arm Quasistatic" + suffix, arm.sysIdQuasistatic(direction));
+            SmartDashboard.putData("SysId/Arm Dynamic" + suffix, arm.sysIdDynamic(direction));
+            SmartDashboard.putData("SysId/Intake Pivot Quasistatic" + suffix, intakePivot.sysIdQuasistatic(direction));
+            SmartDashboard.putData("SysId/Intake Pivot Dynamic" + suffix, intakePivot.sysIdDynamic(direction));
+        }
     }
 
     private void configureButtonBindings() {
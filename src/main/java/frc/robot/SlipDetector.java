@@ -0,0 +1,199 @@
+package frc.robot;
+
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+
+/**
+ * Corrects slipping modules against a rigid body fit and holds translation on accelerometer
+ * mismatches or impacts. The Pigeon2 sim has no accelerometer, so sim only runs the fit.
+ */
+public class SlipDetector {
+
+    /** Meters per Second, how far one module may disagree with the rigid body fit */
+    private static final double MODULE_SLIP_VELOCITY = 0.35;
+    /** Meters per Second Squared, wheel vs accelerometer disagreement that means the wheels are slipping */
+    private static final double ACCEL_MISMATCH = 4.0;
+    /** Meters per Second Squared, accelerometer spike that means we were hit */
+    private static final double COLLISION_ACCEL = 15.0;
+    private static final double GRAVITY = 9.81;
+    /** low pass for both accelerations, the differentiated wheel speeds are noisy at odometry rate */
+    private static final double ACCEL_FILTER = 0.2;
+
+    private final boolean useAccelerometer;
+    private final double[] moduleX;
+    private final double[] moduleY;
+
+    private final double[] moduleVx = new double[4];
+    private final double[] moduleVy = new double[4];
+    private final double[] lastRawDistance = new double[4];
+    private final double[] distanceOffset = new double[4];
+
+    /* fit output */
+    private double fitVx, fitVy, fitOmega;
+
+    private double lastVx, lastVy, lastTimestamp = -1;
+    private double wheelAx, wheelAy, imuAx, imuAy;
+
+    private volatile boolean slipping = false;
+    private volatile boolean colliding = false;
+    private volatile double lastFlagTimestamp = Double.NEGATIVE_INFINITY;
+    private volatile int flaggedSamples = 0;
+
+    /**
+     * @param useAccelerometer Whether to run the accelerometer checks, false in simulation
+     */
+    public SlipDetector(boolean useAccelerometer) {
+        this.useAccelerometer = useAccelerometer;
+        moduleX = Constants.SwerveConstants.moduleX;
+        moduleY = Constants.SwerveConstants.moduleY;
+    }
+
+    /**
+     * Checks one odometry sample and corrects the positions in place.
+     * @param timestamp Sample Time: (in Seconds)
+     * @param positions Module positions from the sample, distances are rewritten
+     * @param wheelSpeeds Module Speeds: (in Meters per Second)
+     * @param accelX Pigeon2 Forward Acceleration: (in g)
+     * @param accelY Pigeon2 Left Acceleration: (in g)
+     */
+    public void update(double timestamp, SwerveModulePosition[] positions, double[] wheelSpeeds, double accelX, double accelY) {
+        for (int i = 0; i < 4; i++) {
+            moduleVx[i] = wheelSpeeds[i] * positions[i].angle.getCos();
+            moduleVy[i] = wheelSpeeds[i] * positions[i].angle.getSin();
+        }
+
+        fit(-1);
+        int worstModule = 0;
+        double worstResidual = 0;
+        for (int i = 0; i < 4; i++) {
+            double residual = residual(i);
+            if (residual > worstResidual) {
+                worstResidual = residual;
+                worstModule = i;
+            }
+        }
+
+        boolean firstSample = lastTimestamp < 0;
+        double dt = firstSample ? 0 : timestamp - lastTimestamp;
+        if (dt > 1e-4) {
+            /* body frame acceleration the accelerometer should see, including the centripetal term */
+            double ax = (fitVx - lastVx) / dt - fitOmega * fitVy;
+            double ay = (fitVy - lastVy) / dt + fitOmega * fitVx;
+            wheelAx += (ax - wheelAx) * ACCEL_FILTER;
+            wheelAy += (ay - wheelAy) * ACCEL_FILTER;
+        }
+        imuAx += (accelX * GRAVITY - imuAx) * ACCEL_FILTER;
+        imuAy += (accelY * GRAVITY - imuAy) * ACCEL_FILTER;
+        lastVx = fitVx;
+        lastVy = fitVy;
+        lastTimestamp = timestamp;
+
+        boolean collision = useAccelerometer && Math.hypot(imuAx, imuAy) > COLLISION_ACCEL;
+        boolean wholeRobotSlip = useAccelerometer && Math.hypot(wheelAx - imuAx, wheelAy - imuAy) > ACCEL_MISMATCH;
+        boolean moduleSlip = worstResidual > MODULE_SLIP_VELOCITY;
+
+        if (!firstSample) {
+            if (collision || wholeRobotSlip) {
+                /* hold translation, every wheel's motion this sample is suspect */
+                for (int i = 0; i < 4; i++) {
+                    distanceOffset[i] += positions[i].distanceMeters - lastRawDistance[i];
+                }
+            } else if (moduleSlip) {
+                /* replace the slipping wheel's travel with what the other three predict for it */
+                fit(worstModule);
+                double predictedVx = fitVx - fitOmega * moduleY[worstModule];
+                double predictedVy = fitVy + fitOmega * moduleX[worstModule];
+                double predictedDistance = (predictedVx * positions[worstModule].angle.getCos() + predictedVy * positions[worstModule].angle.getSin()) * dt;
+                distanceOffset[worstModule] += positions[worstModule].distanceMeters - lastRawDistance[worstModule] - predictedDistance;
+            }
+        }
+
+        for (int i = 0; i < 4; i++) {
+            lastRawDistance[i] = positions[i].distanceMeters;
+            positions[i].distanceMeters -= distanceOffset[i];
+        }
+
+        slipping = moduleSlip || wholeRobotSlip;
+        colliding = collision;
+        if (slipping || colliding) {
+            lastFlagTimestamp = timestamp;
+            flaggedSamples++;
+        }
+    }
+
+    /** Least squares rigid body fit of the module velocities, skipping one module (or -1 for none). */
+    private void fit(int skip) {
+        double meanX = 0, meanY = 0, meanVx = 0, meanVy = 0;
+        int count = 0;
+        for (int i = 0; i < 4; i++) {
+            if (i == skip) {
+                continue;
+            }
+            meanX += moduleX[i];
+            meanY += moduleY[i];
+            meanVx += moduleVx[i];
+            meanVy += moduleVy[i];
+            count++;
+        }
+        meanX /= count;
+        meanY /= count;
+        meanVx /= count;
+        meanVy /= count;
+
+        double sumMoment = 0, sumRadiusSq = 0;
+        for (int i = 0; i < 4; i++) {
+            if (i == skip) {
+                continue;
+            }
+            double relX = moduleX[i] - meanX;
+            double relY = moduleY[i] - meanY;
+            sumMoment += relX * (moduleVy[i] - meanVy) - relY * (moduleVx[i] - meanVx);
+            sumRadiusSq += relX * relX + relY * relY;
+        }
+        fitOmega = sumMoment / sumRadiusSq;
+
+        /* move the fitted velocity from the subset's centroid back to the robot center */
+        fitVx = meanVx + fitOmega * meanY;
+        fitVy = meanVy - fitOmega * meanX;
+    }
+
+    private double residual(int module) {
+        double errorX = moduleVx[module] - (fitVx - fitOmega * moduleY[module]);
+        double errorY = moduleVy[module] - (fitVy + fitOmega * moduleX[module]);
+        return Math.hypot(errorX, errorY);
+    }
+
+    /**
+     * @return Robot Relative Forward Velocity from the last rigid body fit: (in Meters per Second), odometry thread only
+     */
+    public double getFitVx() {
+        return fitVx;
+    }
+
+    /**
+     * @return Robot Relative Left Velocity from the last rigid body fit: (in Meters per Second), odometry thread only
+     */
+    public double getFitVy() {
+        return fitVy;
+    }
+
+    public boolean isSlipping() {
+        return slipping;
+    }
+
+    public boolean isColliding() {
+        return colliding;
+    }
+
+    public int getFlaggedSamples() {
+        return flaggedSamples;
+    }
+
+    /**
+     * @param timestamp Current Time: (in Seconds)
+     * @param window Lookback: (in Seconds)
+     * @return Whether a sample was flagged within the window, vision should be trusted more
+     */
+    public boolean flaggedWithin(double timestamp, double window) {
+        return timestamp - lastFlagTimestamp < window;
+    }
+}
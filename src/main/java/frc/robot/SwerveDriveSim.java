@@ -0,0 +1,175 @@
+package frc.robot;
+
+import com.ctre.phoenix6.sim.Pigeon2SimState;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.math.system.plant.LinearSystemId;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.wpilibj.RobotController;
+import edu.wpi.first.wpilibj.simulation.BatterySim;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import edu.wpi.first.wpilibj.simulation.RoboRioSim;
+
+/**
+ * Rigid body drivetrain sim with friction limited wheels, driven by and written back to the Phoenix 6 sim states.
+ */
+public class SwerveDriveSim {
+
+    private static final int SUBSTEPS = 5;
+    private static final double GRAVITY = 9.81;
+    /** kg m^2, wheel plus drive rotor reflected through the gearing */
+    private static final double DRIVE_INERTIA = 0.0025;
+    /** kg m^2, module plus steer rotor reflected through the gearing */
+    private static final double ANGLE_INERTIA = 0.004;
+
+    private final SwerveModule[] swerveModules;
+    private final Pigeon2SimState gyroSim;
+    private final DCMotor driveMotor = DCMotor.getKrakenX60Foc(1);
+    private final DCMotorSim[] angleSims;
+
+    private final double massKg;
+    private final double moiKgMetersSq;
+    private final double wheelCOF;
+    private final double wheelRadius;
+    private final double[] moduleX;
+    private final double[] moduleY;
+
+    /* module state */
+    private final double[] wheelOmega = new double[4];
+    private final double[] wheelRotations = new double[4];
+    private final double[] driveCurrents = new double[4];
+    private final double[] driveVolts = new double[4];
+
+    /* chassis state, field relative */
+    private double x, y, heading;
+    private double vx, vy, omega;
+
+    /**
+     * @param swerveModules Modules indexed by module number
+     * @param gyroSim Pigeon2 sim state
+     * @param massKg Robot Mass: (in Kilograms)
+     * @param moiKgMetersSq Robot Moment of Inertia: (in Kilogram Meters Squared)
+     * @param wheelCOF Wheel Coefficient of Friction
+     * @param wheelRadius Wheel Radius: (in Meters)
+     */
+    public SwerveDriveSim(SwerveModule[] swerveModules, Pigeon2SimState gyroSim, double massKg, double moiKgMetersSq, double wheelCOF, double wheelRadius) {
+        this.swerveModules = swerveModules;
+        this.gyroSim = gyroSim;
+        this.massKg = massKg;
+        this.moiKgMetersSq = moiKgMetersSq;
+        this.wheelCOF = wheelCOF;
+        this.wheelRadius = wheelRadius;
+
+        moduleX = Constants.SwerveConstants.moduleX;
+        moduleY = Constants.SwerveConstants.moduleY;
+
+        DCMotor angleMotor = DCMotor.getKrakenX60Foc(1);
+        angleSims = new DCMotorSim[swerveModules.length];
+        for (int i = 0; i < angleSims.length; i++) {
+            angleSims[i] = new DCMotorSim(
+                LinearSystemId.createDCMotorSystem(angleMotor, ANGLE_INERTIA, Constants.SwerveConstants.angleGearRatio),
+                angleMotor
+            );
+        }
+    }
+
+    /**
+     * Advances the simulation, call from simulationPeriodic.
+     * @param dt Loop Period: (in Seconds)
+     */
+    public void update(double dt) {
+        double h = dt / SUBSTEPS;
+        double moduleMass = massKg / swerveModules.length;
+        double maxForce = wheelCOF * moduleMass * GRAVITY;
+        double driveRatio = Constants.SwerveConstants.driveGearRatio;
+
+        for (SwerveModule mod : swerveModules) {
+            driveVolts[mod.moduleNumber] = mod.getSimDriveVoltage();
+            angleSims[mod.moduleNumber].setInputVoltage(mod.getSimAngleVoltage());
+        }
+
+        for (int step = 0; step < SUBSTEPS; step++) {
+            double cos = Math.cos(heading);
+            double sin = Math.sin(heading);
+            double robotVx = vx * cos + vy * sin;
+            double robotVy = -vx * sin + vy * cos;
+
+            double fx = 0, fy = 0, torque = 0;
+            for (int i = 0; i < swerveModules.length; i++) {
+                angleSims[i].update(h);
+                double angle = angleSims[i].getAngularPositionRad();
+                double angleCos = Math.cos(angle);
+                double angleSin = Math.sin(angle);
+
+                /* ground velocity under the wheel, split along and across the wheel */
+                double groundVx = robotVx - omega * moduleY[i];
+                double groundVy = robotVy + omega * moduleX[i];
+                double along = groundVx * angleCos + groundVy * angleSin;
+                double lateral = -groundVx * angleSin + groundVy * angleCos;
+
+                double motorOmega = wheelOmega[i] * driveRatio;
+                driveCurrents[i] = driveMotor.getCurrent(motorOmega, driveVolts[i]);
+                double wheelTorque = driveMotor.getTorque(driveCurrents[i]) * driveRatio;
+
+                /* traction force that would match wheel and ground speed this step, then friction limited */
+                double slip = wheelOmega[i] * wheelRadius - along;
+                double effectiveMass = 1.0 / (1.0 / moduleMass + wheelRadius * wheelRadius / DRIVE_INERTIA);
+                double tractionForce = slip * effectiveMass / h;
+                double lateralForce = -lateral * moduleMass / h;
+
+                double totalForce = Math.hypot(tractionForce, lateralForce);
+                if (totalForce > maxForce) {
+                    tractionForce *= maxForce / totalForce;
+                    lateralForce *= maxForce / totalForce;
+                }
+
+                wheelOmega[i] += (wheelTorque - tractionForce * wheelRadius) / DRIVE_INERTIA * h;
+                wheelRotations[i] += wheelOmega[i] * h / (2 * Math.PI);
+
+                double moduleFx = tractionForce * angleCos - lateralForce * angleSin;
+                double moduleFy = tractionForce * angleSin + lateralForce * angleCos;
+                fx += moduleFx;
+                fy += moduleFy;
+                torque += moduleX[i] * moduleFy - moduleY[i] * moduleFx;
+            }
+
+            double ax = fx / massKg;
+            double ay = fy / massKg;
+            vx += (ax * cos - ay * sin) * h;
+            vy += (ax * sin + ay * cos) * h;
+            omega += torque / moiKgMetersSq * h;
+
+            x += vx * h;
+            y += vy * h;
+            heading += omega * h;
+        }
+
+        for (SwerveModule mod : swerveModules) {
+            int i = mod.moduleNumber;
+            mod.setSimState(
+                wheelRotations[i],
+                wheelOmega[i] / (2 * Math.PI),
+                Units.radiansToRotations(angleSims[i].getAngularPositionRad()),
+                Units.radiansToRotations(angleSims[i].getAngularVelocityRadPerSec())
+            );
+        }
+
+        gyroSim.setSupplyVoltage(RobotController.getBatteryVoltage());
+        gyroSim.setRawYaw(Units.radiansToDegrees(heading));
+        gyroSim.setAngularVelocityZ(Units.radiansToDegrees(omega));
+
+        RoboRioSim.setVInVoltage(BatterySim.calculateDefaultBatteryLoadedVoltage(
+            Math.abs(driveCurrents[0]), Math.abs(driveCurrents[1]), Math.abs(driveCurrents[2]), Math.abs(driveCurrents[3])));
+    }
+
+    /**
+     * @return Ground truth pose, starts at the origin facing the gyro's zero. Compare its motion
+     * against the pose estimator to see odometry drift.
+     */
+    public Pose2d getPose() {
+        return new Pose2d(x, y, new Rotation2d(heading));
+    }
+
+}
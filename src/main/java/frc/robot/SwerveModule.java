@@ -1,52 +1,138 @@
 package frc.robot;
 
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.CANcoderConfiguration;
+import com.ctre.phoenix6.configs.CurrentLimitsConfigs;
+import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.configs.TorqueCurrentConfigs;
 import com.ctre.phoenix6.controls.DutyCycleOut;
+import com.ctre.phoenix6.controls.MotionMagicTorqueCurrentFOC;
+import com.ctre.phoenix6.controls.MotionMagicVoltage;
+import com.ctre.phoenix6.controls.PositionTorqueCurrentFOC;
 import com.ctre.phoenix6.controls.PositionVoltage;
+import com.ctre.phoenix6.controls.VelocityTorqueCurrentFOC;
 import com.ctre.phoenix6.controls.VelocityVoltage;
+import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.CANcoder;
 import com.ctre.phoenix6.hardware.TalonFX;
+import com.ctre.phoenix6.signals.FeedbackSensorSourceValue;
+import com.ctre.phoenix6.signals.InvertedValue;
+import com.ctre.phoenix6.sim.CANcoderSimState;
+import com.ctre.phoenix6.sim.ChassisReference;
+import com.ctre.phoenix6.sim.TalonFXSimState;
 
+import edu.wpi.first.math.MathUtil;
 import edu.wpi.first.math.controller.SimpleMotorFeedforward;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.util.Units;
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.Current;
+import edu.wpi.first.units.measure.Temperature;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.RobotController;
+import frc.lib.ControlOutput;
 import frc.lib.Conversions;
 import frc.lib.SwerveModuleConstants;
+import frc.lib.ThermalModel;
 
 public class SwerveModule {
+
+    /** How the closed loop requests drive the motors, gains live in Slot0 (voltage) and Slot1 (torque current) */
+    public enum ClosedLoopOutput {
+        VOLTAGE,
+        TORQUE_CURRENT_FOC
+    }
     
     public int moduleNumber;
+    private final ClosedLoopOutput closedLoopOutput;
     private Rotation2d angleOffset;
 
     private TalonFX mAngleMotor;
     private TalonFX mDriveMotor;
+    /* every control write goes through these so unchanged requests aren't re-sent */
+    private ControlOutput angleOutput;
+    private ControlOutput driveOutput;
     private CANcoder angleEncoder;
 
-    private SwerveModuleState currentState;
     private SwerveModuleState desiredState;
+    /* last setpoint actually sent, after optimization */
+    private double commandedSpeed = 0;
+    private double commandedAngle = 0;
+
+    /* cached signals, refreshed once per loop by Swerve */
+    private final StatusSignal<Angle> drivePositionSignal;
+    private final StatusSignal<AngularVelocity> driveVelocitySignal;
+    private final StatusSignal<Angle> anglePositionSignal;
+    private final StatusSignal<AngularVelocity> angleVelocitySignal;
+    private final StatusSignal<Current> driveStatorCurrentSignal;
+    private final StatusSignal<Temperature> driveTemperatureSignal;
 
-    private SwerveModulePosition currentPosition;
+    /* drive thermal derating */
+    private final ThermalModel driveThermal = new ThermalModel(
+        Constants.SwerveConstants.driveAmbientTemperature,
+        Constants.SwerveConstants.driveThermalTimeConstant,
+        Constants.SwerveConstants.driveHeatingCoefficient,
+        Constants.SwerveConstants.driveTemperatureLimit,
+        Constants.SwerveConstants.driveThermalCorrection
+    );
+    private final CurrentLimitsConfigs driveCurrentLimits = new CurrentLimitsConfigs();
+    private final TorqueCurrentConfigs driveTorqueLimits = new TorqueCurrentConfigs();
+    private double driveCurrentLimit = Constants.SwerveConstants.driveStatorCurrentLimit;
+    private double appliedDriveCurrentLimit = Constants.SwerveConstants.driveStatorCurrentLimit;
+    private double sustainableCurrent = Constants.SwerveConstants.driveStatorCurrentLimit;
+
+    /* odometry signals, owned by the odometry thread */
+    private final StatusSignal<Angle> odometryDrivePosition;
+    private final StatusSignal<AngularVelocity> odometryDriveVelocity;
+    private final StatusSignal<Angle> odometryAnglePosition;
+    private final StatusSignal<AngularVelocity> odometryAngleVelocity;
+    private final SwerveModulePosition odometryPosition = new SwerveModulePosition();
+    /* latest compensated angle from the odometry thread, for optimizing setpoints on any thread */
+    private volatile double odometryAngleRotations = 0;
     
     private final SimpleMotorFeedforward driveFeedForward = new SimpleMotorFeedforward(Constants.SwerveConstants.driveKS, Constants.SwerveConstants.driveKV, Constants.SwerveConstants.driveKA);
 
     /* drive motor control requests */
-    private final DutyCycleOut driveDutyCycle = new DutyCycleOut(0);
-    private final VelocityVoltage driveVelocity = new VelocityVoltage(0);
+    private final DutyCycleOut driveDutyCycle = new DutyCycleOut(0).withUpdateFreqHz(ControlOutput.UPDATE_FREQUENCY);
+    private final VoltageOut characterizationVoltage = new VoltageOut(0).withUpdateFreqHz(ControlOutput.UPDATE_FREQUENCY);
+    private final VelocityVoltage driveVelocity = new VelocityVoltage(0).withSlot(0).withUpdateFreqHz(ControlOutput.UPDATE_FREQUENCY);
+    private final VelocityTorqueCurrentFOC driveTorqueVelocity = new VelocityTorqueCurrentFOC(0).withSlot(1).withUpdateFreqHz(ControlOutput.UPDATE_FREQUENCY);
 
     /* angle motor control requests */
-    private final PositionVoltage anglePosition = new PositionVoltage(0);
+    private final PositionVoltage anglePosition = new PositionVoltage(0).withSlot(0).withUpdateFreqHz(ControlOutput.UPDATE_FREQUENCY);
+    private final PositionTorqueCurrentFOC angleTorquePosition = new PositionTorqueCurrentFOC(0).withSlot(1).withUpdateFreqHz(ControlOutput.UPDATE_FREQUENCY);
+    private final MotionMagicVoltage angleMotionMagic = new MotionMagicVoltage(0).withSlot(0).withUpdateFreqHz(ControlOutput.UPDATE_FREQUENCY);
+    private final MotionMagicTorqueCurrentFOC angleTorqueMotionMagic = new MotionMagicTorqueCurrentFOC(0).withSlot(1).withUpdateFreqHz(ControlOutput.UPDATE_FREQUENCY);
 
     public SwerveModule(int moduleNumber, SwerveModuleConstants moduleConstants){
+        this(moduleNumber, moduleConstants, Constants.SwerveConstants.closedLoopOutput);
+    }
+
+    public SwerveModule(int moduleNumber, SwerveModuleConstants moduleConstants, ClosedLoopOutput closedLoopOutput){
         this.moduleNumber = moduleNumber;
+        this.closedLoopOutput = closedLoopOutput;
         this.angleOffset = moduleConstants.angleOffset;
         
-        /* Angle Encoder Config */
+        /* Angle Encoder Config, the offset lives in the CANcoder so it reads the module angle directly */
         angleEncoder = new CANcoder(moduleConstants.cancoderID, "cani");
-        angleEncoder.getConfigurator().apply(Robot.ctreConfigs.swerveCANcoderConfig);
+        CANcoderConfiguration encoderConfig = new CANcoderConfiguration();
+        encoderConfig.MagnetSensor.SensorDirection = Robot.ctreConfigs.swerveCANcoderConfig.MagnetSensor.SensorDirection;
+        encoderConfig.MagnetSensor.MagnetOffset = -angleOffset.getRotations();
+        angleEncoder.getConfigurator().apply(encoderConfig);
+        if (Constants.SwerveConstants.angleFeedbackSource == FeedbackSensorSourceValue.RemoteCANcoder) {
+            angleEncoder.getPosition().setUpdateFrequency(Constants.SwerveConstants.remoteCANcoderFrequency);
+        }
 
-        /* Angle Motor Config */
+        /* Angle Motor Config, a copy of the shared config pointed at this module's CANcoder */
         mAngleMotor = new TalonFX(moduleConstants.angleMotorID, "cani");
-        mAngleMotor.getConfigurator().apply(Robot.ctreConfigs.swerveAngleFXConfig);
+        TalonFXConfiguration angleConfig = new TalonFXConfiguration();
+        angleConfig.deserialize(Robot.ctreConfigs.swerveAngleFXConfig.serialize());
+        angleConfig.Feedback.FeedbackRemoteSensorID = moduleConstants.cancoderID;
+        mAngleMotor.getConfigurator().apply(angleConfig);
         mAngleMotor.setSafetyEnabled(false);
         resetToAbsolute();
 
@@ -56,34 +142,95 @@ public class SwerveModule {
         mDriveMotor.getConfigurator().setPosition(0.0);
         mDriveMotor.setSafetyEnabled(true);
 
-        currentState = new SwerveModuleState(
-            Conversions.RPSToMPS(mDriveMotor.getVelocity().getValueAsDouble(), Constants.SwerveConstants.wheelCircumference), 
-            Rotation2d.fromRotations(mAngleMotor.getPosition().getValueAsDouble())
-        );
+        angleOutput = new ControlOutput("Mod " + moduleNumber + " Angle", mAngleMotor, mAngleMotor::setControl);
+        driveOutput = new ControlOutput("Mod " + moduleNumber + " Drive", mDriveMotor, mDriveMotor::setControl);
 
-        currentPosition = new SwerveModulePosition(
-            Conversions.rotationsToMeters(mDriveMotor.getPosition().getValueAsDouble(), Constants.SwerveConstants.wheelCircumference), 
-            Rotation2d.fromRotations(mAngleMotor.getPosition().getValueAsDouble())
-        );
+        /* sim states report voltage and take positions in the inverted mechanism direction */
+        mDriveMotor.getSimState().Orientation = simOrientation(Constants.SwerveConstants.driveMotorInvert);
+        mAngleMotor.getSimState().Orientation = simOrientation(Constants.SwerveConstants.angleMotorInvert);
+
+        drivePositionSignal = mDriveMotor.getPosition();
+        driveVelocitySignal = mDriveMotor.getVelocity();
+        anglePositionSignal = mAngleMotor.getPosition();
+        angleVelocitySignal = mAngleMotor.getVelocity();
+        driveStatorCurrentSignal = mDriveMotor.getStatorCurrent();
+        driveTemperatureSignal = mDriveMotor.getDeviceTemp();
+
+        /* only the stator limit and torque peaks change when derating, the rest mirrors CTREConfigs */
+        driveCurrentLimits.SupplyCurrentLimitEnable = Constants.SwerveConstants.driveEnableCurrentLimit;
+        driveCurrentLimits.SupplyCurrentLimit = Constants.SwerveConstants.driveCurrentLimit;
+        driveCurrentLimits.StatorCurrentLimitEnable = true;
+
+        odometryDrivePosition = drivePositionSignal.clone();
+        odometryDriveVelocity = driveVelocitySignal.clone();
+        odometryAnglePosition = anglePositionSignal.clone();
+        odometryAngleVelocity = angleVelocitySignal.clone();
 
         desiredState = new SwerveModuleState(0, new Rotation2d());
     }
 
     public void setDesiredState(SwerveModuleState desiredState, boolean isOpenLoop){
-        desiredState.optimize(getState().angle); 
-        mAngleMotor.setControl(anglePosition.withPosition(desiredState.angle.getRotations()));
-        setSpeed(desiredState, isOpenLoop);
+        setDesiredState(desiredState.speedMetersPerSecond, desiredState.angle.getRadians(), isOpenLoop);
+    }
+
+    /**
+     * Allocation free version of {@link #setDesiredState(SwerveModuleState, boolean)}.
+     * @param speedMetersPerSecond Wheel Velocity: (in Meters per Second)
+     * @param angleRadians Module Angle: (in Radians)
+     */
+    public void setDesiredState(double speedMetersPerSecond, double angleRadians, boolean isOpenLoop){
+        setDesiredState(speedMetersPerSecond, angleRadians, 0.0, isOpenLoop);
+    }
+
+    /**
+     * @param speedMetersPerSecond Wheel Velocity: (in Meters per Second)
+     * @param angleRadians Module Angle: (in Radians)
+     * @param accelerationMPSSq Wheel Acceleration Feedforward along the module angle: (in Meters per Second Squared), only used closed loop
+     */
+    public void setDesiredState(double speedMetersPerSecond, double angleRadians, double accelerationMPSSq, boolean isOpenLoop){
+        /* never turn more than 90 degrees, reverse the wheel instead */
+        double currentRadians = Units.rotationsToRadians(odometryAngleRotations);
+        if (Math.abs(MathUtil.angleModulus(angleRadians - currentRadians)) > Math.PI / 2.0) {
+            speedMetersPerSecond = -speedMetersPerSecond;
+            accelerationMPSSq = -accelerationMPSSq;
+            angleRadians += Math.PI;
+        }
+
+        commandedSpeed = speedMetersPerSecond;
+        commandedAngle = angleRadians;
+
+        double angleRotations = Units.radiansToRotations(angleRadians);
+        if (closedLoopOutput == ClosedLoopOutput.TORQUE_CURRENT_FOC) {
+            if (Constants.SwerveConstants.angleMotionMagic) {
+                angleOutput.set(angleTorqueMotionMagic.withPosition(angleRotations), angleRotations);
+            } else {
+                angleOutput.set(angleTorquePosition.withPosition(angleRotations), angleRotations);
+            }
+        } else {
+            if (Constants.SwerveConstants.angleMotionMagic) {
+                angleOutput.set(angleMotionMagic.withPosition(angleRotations), angleRotations);
+            } else {
+                angleOutput.set(anglePosition.withPosition(angleRotations), angleRotations);
+            }
+        }
+        setSpeed(speedMetersPerSecond, accelerationMPSSq, isOpenLoop);
     }
 
-    private void setSpeed(SwerveModuleState desiredState, boolean isOpenLoop){
+    private void setSpeed(double speedMetersPerSecond, double accelerationMPSSq, boolean isOpenLoop){
         if(isOpenLoop){
-            driveDutyCycle.Output = desiredState.speedMetersPerSecond / Constants.SwerveConstants.maxSpeed;
-            mDriveMotor.setControl(driveDutyCycle);
+            driveDutyCycle.Output = speedMetersPerSecond / Constants.SwerveConstants.maxSpeed;
+            driveOutput.set(driveDutyCycle, driveDutyCycle.Output);
+        }
+        else if (closedLoopOutput == ClosedLoopOutput.TORQUE_CURRENT_FOC) {
+            /* kS and kA for torque control are in Slot1, current doesn't depend on battery voltage */
+            driveTorqueVelocity.Velocity = Conversions.MPSToRPS(speedMetersPerSecond, Constants.SwerveConstants.wheelCircumference);
+            driveTorqueVelocity.Acceleration = Conversions.MPSToRPS(accelerationMPSSq, Constants.SwerveConstants.wheelCircumference);
+            driveOutput.set(driveTorqueVelocity, driveTorqueVelocity.Velocity, driveTorqueVelocity.Acceleration);
         }
         else {
-            driveVelocity.Velocity = Conversions.MPSToRPS(desiredState.speedMetersPerSecond, Constants.SwerveConstants.wheelCircumference);
-            driveVelocity.FeedForward = driveFeedForward.calculate(desiredState.speedMetersPerSecond);
-            mDriveMotor.setControl(driveVelocity);
+            driveVelocity.Velocity = Conversions.MPSToRPS(speedMetersPerSecond, Constants.SwerveConstants.wheelCircumference);
+            driveVelocity.FeedForward = driveFeedForward.calculate(speedMetersPerSecond) + driveFeedForward.getKa() * accelerationMPSSq;
+            driveOutput.set(driveVelocity, driveVelocity.Velocity, driveVelocity.FeedForward);
         }
     }
 
@@ -91,30 +238,216 @@ public class SwerveModule {
         return Rotation2d.fromRotations(angleEncoder.getAbsolutePosition().getValueAsDouble());
     }
 
+    /** Seeds the rotor sensor from the CANcoder, only with RotorSensor feedback. */
     public void resetToAbsolute(){
-        double absolutePosition = getCANcoder().getRotations() - angleOffset.getRotations();
-        mAngleMotor.setPosition(absolutePosition);
+        /* the simulated steer starts at its true angle, reseeding would offset it from the physics */
+        if (RobotBase.isSimulation() || Constants.SwerveConstants.angleFeedbackSource != FeedbackSensorSourceValue.RotorSensor) {
+            return;
+        }
+        mAngleMotor.setPosition(getCANcoder().getRotations());
     }
 
+    /**
+     * @return Signals read by the getters below, refresh them together once per loop
+     */
+    public BaseStatusSignal[] getCachedSignals() {
+        return new BaseStatusSignal[] {drivePositionSignal, driveVelocitySignal, anglePositionSignal, angleVelocitySignal, driveStatorCurrentSignal, driveTemperatureSignal};
+    }
+
+    /** Reads the cached snapshot, see {@link #getCachedSignals()}. */
     public SwerveModuleState getState(){
         return new SwerveModuleState(
-            Conversions.RPSToMPS(mDriveMotor.getVelocity().getValueAsDouble(), Constants.SwerveConstants.wheelCircumference), 
-            Rotation2d.fromRotations(mAngleMotor.getPosition().getValueAsDouble())
+            Conversions.RPSToMPS(driveVelocitySignal.getValueAsDouble(), Constants.SwerveConstants.wheelCircumference), 
+            Rotation2d.fromRotations(anglePositionSignal.getValueAsDouble())
         );
     }
 
+    /** Reads the cached snapshot, latency compensated, see {@link #getCachedSignals()}. */
     public SwerveModulePosition getPosition(){
         return new SwerveModulePosition(
-            Conversions.rotationsToMeters(mDriveMotor.getPosition().getValueAsDouble(), Constants.SwerveConstants.wheelCircumference), 
-            Rotation2d.fromRotations(mAngleMotor.getPosition().getValueAsDouble())
+            Conversions.rotationsToMeters(compensate(drivePositionSignal, driveVelocitySignal), Constants.SwerveConstants.wheelCircumference), 
+            Rotation2d.fromRotations(compensate(anglePositionSignal, angleVelocitySignal))
         );
     }
 
-    public void setTargetState(SwerveModuleState targetState) {
-        currentState.optimize(currentState.angle);
-        currentPosition = new SwerveModulePosition(currentPosition.distanceMeters + (currentState.speedMetersPerSecond * 0.02), currentState.angle);
+    private static double compensate(StatusSignal<Angle> position, StatusSignal<AngularVelocity> velocity) {
+        return Conversions.latencyCompensate(position.getValueAsDouble(), velocity.getValueAsDouble(), position.getTimestamp().getLatency());
     }
-    
+
+    /**
+     * @return Drive and angle position/velocity signals for the odometry thread to wait on
+     */
+    public BaseStatusSignal[] getOdometrySignals() {
+        return new BaseStatusSignal[] {odometryDrivePosition, odometryDriveVelocity, odometryAnglePosition, odometryAngleVelocity};
+    }
+
+    /** Latency compensated position from the last odometry sample, reused, odometry thread only. */
+    public SwerveModulePosition sampleOdometryPosition() {
+        odometryPosition.distanceMeters = Conversions.rotationsToMeters(compensate(odometryDrivePosition, odometryDriveVelocity), Constants.SwerveConstants.wheelCircumference);
+        odometryAngleRotations = compensate(odometryAnglePosition, odometryAngleVelocity);
+        odometryPosition.angle = Rotation2d.fromRotations(odometryAngleRotations);
+        return odometryPosition;
+    }
+
+    /**
+     * @return Wheel Velocity from the last odometry sample: (in Meters per Second)
+     */
+    public double sampleOdometrySpeed() {
+        return Conversions.RPSToMPS(odometryDriveVelocity.getValueAsDouble(), Constants.SwerveConstants.wheelCircumference);
+    }
+
+    /**
+     * @return Voltage the drive motor is applying in simulation, positive drives the wheel forward
+     */
+    public double getSimDriveVoltage() {
+        TalonFXSimState driveSim = mDriveMotor.getSimState();
+        driveSim.setSupplyVoltage(RobotController.getBatteryVoltage());
+        return driveSim.getMotorVoltage();
+    }
+
+    /**
+     * @return Voltage the angle motor is applying in simulation, positive turns the module counterclockwise
+     */
+    public double getSimAngleVoltage() {
+        TalonFXSimState angleSim = mAngleMotor.getSimState();
+        angleSim.setSupplyVoltage(RobotController.getBatteryVoltage());
+        return angleSim.getMotorVoltage();
+    }
+
+    /**
+     * Writes the simulated mechanism back into the TalonFX and CANcoder sim states.
+     * @param wheelRotations Wheel Position: (in Rotations)
+     * @param wheelRPS Wheel Velocity: (in Rotations per Second)
+     * @param angleRotations Module Angle: (in Rotations)
+     * @param angleRPS Module Angular Velocity: (in Rotations per Second)
+     */
+    public void setSimState(double wheelRotations, double wheelRPS, double angleRotations, double angleRPS) {
+        TalonFXSimState driveSim = mDriveMotor.getSimState();
+        driveSim.setRawRotorPosition(wheelRotations * Constants.SwerveConstants.driveGearRatio);
+        driveSim.setRotorVelocity(wheelRPS * Constants.SwerveConstants.driveGearRatio);
+
+        TalonFXSimState angleSim = mAngleMotor.getSimState();
+        angleSim.setRawRotorPosition(angleRotations * Constants.SwerveConstants.angleGearRatio);
+        angleSim.setRotorVelocity(angleRPS * Constants.SwerveConstants.angleGearRatio);
+
+        CANcoderSimState encoderSim = angleEncoder.getSimState();
+        encoderSim.setRawPosition(angleRotations + angleOffset.getRotations());
+        encoderSim.setVelocity(angleRPS);
+    }
+
+    private static ChassisReference simOrientation(InvertedValue invert) {
+        return invert == InvertedValue.Clockwise_Positive ? ChassisReference.Clockwise_Positive : ChassisReference.CounterClockwise_Positive;
+    }
+
+    public ClosedLoopOutput getClosedLoopOutput() {
+        return closedLoopOutput;
+    }
+
+    /**
+     * Steps the drive thermal model and rate limits the stator limit toward what it can sustain.
+     * @param dt Loop Period: (in Seconds)
+     * @param remainingTime Match Time Left: (in Seconds)
+     */
+    public void updateThermal(double dt, double remainingTime) {
+        driveThermal.update(dt, driveStatorCurrentSignal.getValueAsDouble(), driveTemperatureSignal.getValueAsDouble());
+        sustainableCurrent = driveThermal.getSustainableCurrent(remainingTime);
+
+        double target = MathUtil.clamp(sustainableCurrent, Constants.SwerveConstants.driveMinStatorCurrentLimit, Constants.SwerveConstants.driveStatorCurrentLimit);
+        double maxStep = Constants.SwerveConstants.driveCurrentDerateRate * dt;
+        driveCurrentLimit += MathUtil.clamp(target - driveCurrentLimit, -maxStep, maxStep);
+
+        if (Math.abs(driveCurrentLimit - appliedDriveCurrentLimit) >= Constants.SwerveConstants.driveCurrentLimitDeadband) {
+            appliedDriveCurrentLimit = driveCurrentLimit;
+            driveCurrentLimits.StatorCurrentLimit = driveCurrentLimit;
+            driveTorqueLimits.PeakForwardTorqueCurrent = Math.min(driveCurrentLimit, Constants.SwerveConstants.drivePeakTorqueCurrent);
+            driveTorqueLimits.PeakReverseTorqueCurrent = -driveTorqueLimits.PeakForwardTorqueCurrent;
+            /* zero timeout, don't block the loop waiting for the ack */
+            mDriveMotor.getConfigurator().apply(driveCurrentLimits, 0);
+            mDriveMotor.getConfigurator().apply(driveTorqueLimits, 0);
+        }
+    }
+
+    /**
+     * @return Estimated Drive Winding Temperature: (in Celsius)
+     */
+    public double getDriveTemperatureEstimate() {
+        return driveThermal.getTemperature();
+    }
+
+    /**
+     * @return Drive Current the motor can hold for the rest of the match: (in Amps)
+     */
+    public double getSustainableCurrent() {
+        return sustainableCurrent;
+    }
+
+    /**
+     * @return Drive Stator Current Limit being applied: (in Amps)
+     */
+    public double getDriveCurrentLimit() {
+        return appliedDriveCurrentLimit;
+    }
+
+    /**
+     * SysId drive test, the module is held straight ahead and the drive motor gets a raw voltage.
+     * @param volts Drive Voltage: (in Volts)
+     */
+    public void runDriveCharacterization(double volts) {
+        angleOutput.set(anglePosition.withPosition(0), 0);
+        driveOutput.set(characterizationVoltage.withOutput(volts), volts);
+    }
+
+    /**
+     * SysId steer test, the drive motor is stopped and the steer motor gets a raw voltage.
+     * @param volts Steer Voltage: (in Volts)
+     */
+    public void runSteerCharacterization(double volts) {
+        driveOutput.set(driveDutyCycle.withOutput(0), 0);
+        angleOutput.set(characterizationVoltage.withOutput(volts), volts);
+    }
+
+    /**
+     * @return Wheel Distance from the cached signals: (in Meters)
+     */
+    public double getMeasuredDistance() {
+        return Conversions.rotationsToMeters(drivePositionSignal.getValueAsDouble(), Constants.SwerveConstants.wheelCircumference);
+    }
+
+    /**
+     * @return Module Angular Velocity from the cached signals: (in Rotations per Second)
+     */
+    public double getMeasuredAngularVelocity() {
+        return angleVelocitySignal.getValueAsDouble();
+    }
+
+    /**
+     * @return Last Commanded Wheel Velocity: (in Meters per Second)
+     */
+    public double getCommandedSpeed() {
+        return commandedSpeed;
+    }
+
+    /**
+     * @return Last Commanded Module Angle: (in Radians)
+     */
+    public double getCommandedAngle() {
+        return commandedAngle;
+    }
+
+    /**
+     * @return Wheel Velocity from the cached signals: (in Meters per Second)
+     */
+    public double getMeasuredSpeed() {
+        return Conversions.RPSToMPS(driveVelocitySignal.getValueAsDouble(), Constants.SwerveConstants.wheelCircumference);
+    }
+
+    /**
+     * @return Module Angle from the cached signals: (in Radians)
+     */
+    public double getMeasuredAngle() {
+        return Units.rotationsToRadians(anglePositionSignal.getValueAsDouble());
+    }
+
     public SwerveModuleState getDesiredState() {
         return desiredState;
     }
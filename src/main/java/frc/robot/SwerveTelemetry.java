@@ -0,0 +1,194 @@
+package frc.robot;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.networktables.BooleanPublisher;
+import edu.wpi.first.networktables.DoubleArrayPublisher;
+import edu.wpi.first.networktables.DoublePublisher;
+import edu.wpi.first.networktables.IntegerPublisher;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.RawPublisher;
+import edu.wpi.first.networktables.StructPublisher;
+import edu.wpi.first.wpilibj.smartdashboard.Field2d;
+import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import frc.lib.SwerveKinematics4;
+import frc.robot.subsystems.Swerve;
+
+/**
+ * Allocation free, struct encoded drivetrain telemetry, each group at its own rate from Constants.TelemetryConstants.
+ */
+public class SwerveTelemetry {
+
+    private final Swerve swerve;
+    private final SwerveModule[] swerveModules;
+    private final OdometryThread odometryThread;
+    private final SlipDetector slipDetector;
+    private final Field2d field = new Field2d();
+
+    private final StructPublisher<Pose2d> posePublisher;
+    private final RawPublisher measuredStatesPublisher;
+    private final RawPublisher desiredStatesPublisher;
+    private final StructPublisher<ChassisSpeeds> chassisSpeedsPublisher;
+    private final StructPublisher<Pose2d> visionPosePublisher;
+
+    private final BooleanPublisher fastModePublisher;
+    private final DoublePublisher odometryFrequencyPublisher;
+    private final DoublePublisher controlFrequencyPublisher;
+    private final DoublePublisher odometryFailedSamplesPublisher;
+    private final BooleanPublisher slipPublisher;
+    private final BooleanPublisher collisionPublisher;
+    private final IntegerPublisher slipFlaggedSamplesPublisher;
+    private final IntegerPublisher visionFramesPublisher;
+    private final IntegerPublisher visionDuplicatesPublisher;
+    private final IntegerPublisher visionTagsPublisher;
+    private final DoublePublisher allowedAccelerationPublisher;
+    private final DoublePublisher allowedSpeedPublisher;
+    private final DoublePublisher thermalAccelerationPublisher;
+    private final DoubleArrayPublisher driveTemperaturePublisher;
+    private final DoubleArrayPublisher sustainableCurrentPublisher;
+    private final DoubleArrayPublisher driveCurrentLimitPublisher;
+
+    private final SwerveKinematics4 kinematics = new SwerveKinematics4(Constants.SwerveConstants.moduleX, Constants.SwerveConstants.moduleY);
+    private final ChassisSpeeds chassisSpeeds = new ChassisSpeeds();
+    private final double[] measuredSpeeds = new double[4];
+    private final double[] measuredAngles = new double[4];
+    private final double[] desiredSpeeds = new double[4];
+    private final double[] desiredAngles = new double[4];
+    /* SwerveModuleState[4] in struct layout, speed then angle for each module */
+    private final ByteBuffer measuredStatesBuffer = ByteBuffer.allocateDirect(4 * SwerveModuleState.struct.getSize()).order(ByteOrder.LITTLE_ENDIAN);
+    private final ByteBuffer desiredStatesBuffer = ByteBuffer.allocateDirect(4 * SwerveModuleState.struct.getSize()).order(ByteOrder.LITTLE_ENDIAN);
+    private final double[] driveTemperatures = new double[4];
+    private final double[] sustainableCurrents = new double[4];
+    private final double[] driveCurrentLimits = new double[4];
+
+    /* last publish time of each group */
+    private double lastPose = Double.NEGATIVE_INFINITY;
+    private double lastModules = Double.NEGATIVE_INFINITY;
+    private double lastField = Double.NEGATIVE_INFINITY;
+    private double lastStatus = Double.NEGATIVE_INFINITY;
+
+    public SwerveTelemetry(Swerve swerve, SwerveModule[] swerveModules, OdometryThread odometryThread, SlipDetector slipDetector) {
+        this.swerve = swerve;
+        this.swerveModules = swerveModules;
+        this.odometryThread = odometryThread;
+        this.slipDetector = slipDetector;
+
+        NetworkTableInstance nt = NetworkTableInstance.getDefault();
+        NetworkTable table = nt.getTable("SmartDashboard").getSubTable("Swerve");
+
+        posePublisher = nt.getStructTopic("RobotPose", Pose2d.struct).publish();
+        /* same topic type a StructArrayPublisher would create, so dashboards decode it the same way */
+        nt.addSchema(SwerveModuleState.struct);
+        String statesType = "struct:" + SwerveModuleState.struct.getTypeName() + "[]";
+        measuredStatesPublisher = table.getRawTopic("Measured States").publish(statesType);
+        desiredStatesPublisher = table.getRawTopic("Desired States").publish(statesType);
+        chassisSpeedsPublisher = table.getStructTopic("Chassis Speeds", ChassisSpeeds.struct).publish();
+        visionPosePublisher = table.getStructTopic("Vision Pose", Pose2d.struct).publish();
+
+        fastModePublisher = table.getBooleanTopic("Fast Mode").publish();
+        odometryFrequencyPublisher = table.getDoubleTopic("Odometry Frequency").publish();
+        controlFrequencyPublisher = table.getDoubleTopic("Control Frequency").publish();
+        odometryFailedSamplesPublisher = table.getDoubleTopic("Odometry Failed Samples").publish();
+        slipPublisher = table.getBooleanTopic("Slip Detected").publish();
+        collisionPublisher = table.getBooleanTopic("Collision Detected").publish();
+        slipFlaggedSamplesPublisher = table.getIntegerTopic("Slip Flagged Samples").publish();
+        visionFramesPublisher = table.getIntegerTopic("Vision Frames").publish();
+        visionDuplicatesPublisher = table.getIntegerTopic("Vision Duplicates Dropped").publish();
+        visionTagsPublisher = table.getIntegerTopic("Vision Tags Visible").publish();
+        allowedAccelerationPublisher = table.getDoubleTopic("Allowed Acceleration").publish();
+        allowedSpeedPublisher = table.getDoubleTopic("Allowed Speed").publish();
+        thermalAccelerationPublisher = table.getDoubleTopic("Thermal/Allowed Acceleration").publish();
+        driveTemperaturePublisher = table.getDoubleArrayTopic("Thermal/Drive Temperature Estimates").publish();
+        sustainableCurrentPublisher = table.getDoubleArrayTopic("Thermal/Sustainable Currents").publish();
+        driveCurrentLimitPublisher = table.getDoubleArrayTopic("Thermal/Drive Current Limits").publish();
+
+        /* Field2d is sendable, it only needs to be put once and then updates itself */
+        SmartDashboard.putData("Swerve/Field", field);
+    }
+
+    /**
+     * Publishes whichever groups are due, call once per loop after the signals are refreshed.
+     * @param now Current Time: (in Seconds)
+     * @param pose Estimated Pose
+     */
+    public void update(double now, Pose2d pose) {
+        if (now - lastPose >= Constants.TelemetryConstants.POSE_PERIOD) {
+            lastPose = now;
+            posePublisher.set(pose);
+        }
+
+        if (now - lastModules >= Constants.TelemetryConstants.MODULE_STATES_PERIOD) {
+            lastModules = now;
+            for (SwerveModule mod : swerveModules) {
+                int i = mod.moduleNumber;
+                measuredSpeeds[i] = mod.getMeasuredSpeed();
+                measuredAngles[i] = mod.getMeasuredAngle();
+                desiredSpeeds[i] = mod.getCommandedSpeed();
+                desiredAngles[i] = mod.getCommandedAngle();
+            }
+            publishStates(measuredStatesPublisher, measuredStatesBuffer, measuredSpeeds, measuredAngles);
+            publishStates(desiredStatesPublisher, desiredStatesBuffer, desiredSpeeds, desiredAngles);
+
+            kinematics.toChassisSpeeds(measuredSpeeds, measuredAngles);
+            chassisSpeeds.vxMetersPerSecond = kinematics.vx;
+            chassisSpeeds.vyMetersPerSecond = kinematics.vy;
+            chassisSpeeds.omegaRadiansPerSecond = kinematics.omega;
+            chassisSpeedsPublisher.set(chassisSpeeds);
+        }
+
+        if (now - lastField >= Constants.TelemetryConstants.FIELD_PERIOD) {
+            lastField = now;
+            field.setRobotPose(pose);
+        }
+
+        if (now - lastStatus >= Constants.TelemetryConstants.STATUS_PERIOD) {
+            lastStatus = now;
+            fastModePublisher.set(swerve.getSpeedMultiplier() == 1.0);
+            odometryFrequencyPublisher.set(odometryThread.getMeasuredFrequency());
+            controlFrequencyPublisher.set(swerve.getControlFrequency());
+            odometryFailedSamplesPublisher.set(odometryThread.getFailedSamples());
+            slipPublisher.set(slipDetector.isSlipping());
+            collisionPublisher.set(slipDetector.isColliding());
+            slipFlaggedSamplesPublisher.set(slipDetector.getFlaggedSamples());
+            visionFramesPublisher.set(swerve.getVisionFramesTaken());
+            visionDuplicatesPublisher.set(swerve.getVisionDuplicatesDropped());
+            visionTagsPublisher.set(swerve.getVisionTagsVisible());
+            allowedAccelerationPublisher.set(swerve.getAllowedAcceleration());
+            allowedSpeedPublisher.set(swerve.getAllowedSpeed());
+
+            for (SwerveModule mod : swerveModules) {
+                driveTemperatures[mod.moduleNumber] = mod.getDriveTemperatureEstimate();
+                sustainableCurrents[mod.moduleNumber] = mod.getSustainableCurrent();
+                driveCurrentLimits[mod.moduleNumber] = mod.getDriveCurrentLimit();
+            }
+            thermalAccelerationPublisher.set(swerve.getThermalAcceleration());
+            driveTemperaturePublisher.set(driveTemperatures);
+            sustainableCurrentPublisher.set(sustainableCurrents);
+            driveCurrentLimitPublisher.set(driveCurrentLimits);
+        }
+    }
+
+    /**
+     * Vision poses are published as they are accepted, not on a timer.
+     * @param pose Vision Pose fused into the estimator
+     */
+    public void publishVisionPose(Pose2d pose) {
+        visionPosePublisher.set(pose);
+    }
+
+    /* SwerveModuleState is {double speed; Rotation2d angle} and Rotation2d is {double value} */
+    private static void publishStates(RawPublisher publisher, ByteBuffer buffer, double[] speeds, double[] angles) {
+        buffer.clear();
+        for (int i = 0; i < 4; i++) {
+            buffer.putDouble(speeds[i]);
+            buffer.putDouble(angles[i]);
+        }
+        publisher.set(buffer, 0, buffer.position());
+    }
+
+}
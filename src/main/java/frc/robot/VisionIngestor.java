@@ -0,0 +1,111 @@
+package frc.robot;
+
+import edu.wpi.first.networktables.TimestampedDoubleArray;
+import frc.lib.LimelightCamera;
+import frc.lib.LimelightHelpers;
+import frc.lib.LimelightResultsReader;
+
+/**
+ * Drains every queued MegaTag2 frame from each Limelight once, in order, into preallocated estimates.
+ */
+public class VisionIngestor {
+
+    private final LimelightCamera[] cameras;
+    private final LimelightResultsReader[] resultsReaders;
+    /* Seconds, latency corrected time of the last frame taken from each camera */
+    private final double[] lastFrameTime;
+
+    /** Most fiducials kept per frame, more than the camera can see of the reef at once */
+    private static final int MAX_FIDUCIALS = 8;
+
+    private final LimelightHelpers.MutablePoseEstimate[] frames;
+    private int frameCount = 0;
+
+    private int framesTaken = 0;
+    private int duplicatesDropped = 0;
+
+    /**
+     * @param cameraNames Limelight names
+     */
+    public VisionIngestor(String[] cameraNames) {
+        cameras = new LimelightCamera[cameraNames.length];
+        resultsReaders = new LimelightResultsReader[cameraNames.length];
+        lastFrameTime = new double[cameraNames.length];
+        frames = new LimelightHelpers.MutablePoseEstimate[cameraNames.length * LimelightCamera.MEGATAG2_QUEUE_DEPTH];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = new LimelightHelpers.MutablePoseEstimate(MAX_FIDUCIALS);
+        }
+
+        for (int i = 0; i < cameraNames.length; i++) {
+            cameras[i] = LimelightCamera.get(cameraNames[i]);
+            resultsReaders[i] = cameras[i].startResultsReader(true, false);
+            lastFrameTime[i] = Double.NEGATIVE_INFINITY;
+        }
+    }
+
+    /**
+     * Drains every camera's queue, read the frames back with {@link #getFrame(int)}.
+     * @return Number of new frames
+     */
+    public int poll() {
+        frameCount = 0;
+        for (int i = 0; i < cameras.length; i++) {
+            for (TimestampedDoubleArray value : cameras[i].readMegaTag2Queue()) {
+                if (frameCount == frames.length) {
+                    break;
+                }
+                /* parse into the next free slot, it is only kept if the frame is new */
+                LimelightHelpers.MutablePoseEstimate estimate = LimelightHelpers.fillPoseEstimate(frames[frameCount], value.value, value.timestamp, true);
+                if (!estimate.valid) {
+                    continue;
+                }
+                if (estimate.timestampSeconds <= lastFrameTime[i]) {
+                    duplicatesDropped++;
+                    continue;
+                }
+                lastFrameTime[i] = estimate.timestampSeconds;
+                frameCount++;
+                framesTaken++;
+            }
+        }
+        return frameCount;
+    }
+
+    /**
+     * @param index Frame index, below the count returned by {@link #poll()}
+     */
+    public LimelightHelpers.MutablePoseEstimate getFrame(int index) {
+        return frames[index];
+    }
+
+    /**
+     * Reads each camera's latest JSON results, call from one thread only.
+     * @return Fiducials seen by every camera in its latest result
+     */
+    public int getTagsVisible() {
+        int tags = 0;
+        for (LimelightResultsReader reader : resultsReaders) {
+            LimelightResultsReader.Results results = reader.getLatest();
+            if (results.valid) {
+                tags += results.fiducials.count;
+            }
+        }
+        return tags;
+    }
+
+    public LimelightCamera getCamera(int camera) {
+        return cameras[camera];
+    }
+
+    public int getCameraCount() {
+        return cameras.length;
+    }
+
+    public int getFramesTaken() {
+        return framesTaken;
+    }
+
+    public int getDuplicatesDropped() {
+        return duplicatesDropped;
+    }
+}
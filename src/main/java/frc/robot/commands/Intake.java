@@ -12,17 +12,12 @@ public class Intake extends Command {
   }
 
   @Override
-  public void initialize() {
+  public void execute() {
     intakeRollers.setBigRollerSpeed(.5);
     intakeRollers.setSmallRollerSpeed(.5);
     intakeRollers.setIndexerSpeed(.5);
   }
 
-  @Override
-  public void execute() {
-    
-  }
-
   @Override
   public void end(boolean interrupted) {
     intakeRollers.stopAllMotors();
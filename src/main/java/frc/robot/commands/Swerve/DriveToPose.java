@@ -0,0 +1,131 @@
+package frc.robot.commands.swerve;
+
+import frc.robot.Constants;
+import frc.robot.subsystems.Swerve;
+
+import java.util.function.Supplier;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
+import edu.wpi.first.wpilibj2.command.Command;
+
+/**
+ * Drives to a field relative pose off the pose estimator. Translation is profiled as a single
+ * distance toward the goal, so the robot moves in a straight line, and rotation is profiled
+ * separately. Both add the profile velocity as feedforward. Because it only reads the estimated
+ * pose it keeps converging on odometry when vision drops out, and a moving goal is tracked each loop.
+ * The controllers run as the swerve's {@link Swerve.DriveController}, on the control thread when
+ * it is enabled, so the goal supplier must be safe to call from there.
+ */
+public class DriveToPose extends Command {
+    private Swerve swerve;
+    private Supplier<Pose2d> goalSupplier;
+
+    private ProfiledPIDController driveController;
+    private ProfiledPIDController thetaController;
+
+    public DriveToPose(Swerve swerve, Pose2d goal) {
+        this(swerve, () -> goal);
+    }
+
+    public DriveToPose(Swerve swerve, Supplier<Pose2d> goalSupplier) {
+        this.swerve = swerve;
+        this.goalSupplier = goalSupplier;
+        addRequirements(swerve);
+
+        driveController = new ProfiledPIDController(
+            Constants.DriveToPoseConstants.DRIVE_P,
+            Constants.DriveToPoseConstants.DRIVE_I,
+            Constants.DriveToPoseConstants.DRIVE_D,
+            new TrapezoidProfile.Constraints(Constants.DriveToPoseConstants.DRIVE_MAX_VELOCITY, Constants.DriveToPoseConstants.DRIVE_MAX_ACCELERATION),
+            swerve.getControlPeriod());
+
+        thetaController = new ProfiledPIDController(
+            Constants.DriveToPoseConstants.THETA_P,
+            Constants.DriveToPoseConstants.THETA_I,
+            Constants.DriveToPoseConstants.THETA_D,
+            new TrapezoidProfile.Constraints(Constants.DriveToPoseConstants.THETA_MAX_VELOCITY, Constants.DriveToPoseConstants.THETA_MAX_ACCELERATION),
+            swerve.getControlPeriod());
+        thetaController.enableContinuousInput(-Math.PI, Math.PI);
+    }
+
+    /** Goal for this loop, field relative. */
+    protected Pose2d getGoal() {
+        return goalSupplier.get();
+    }
+
+    @Override
+    public void initialize() {
+        Pose2d pose = swerve.getPose();
+        Pose2d goal = getGoal();
+
+        /* start the profiles from the current motion so a moving robot doesn't lurch */
+        ChassisSpeeds robotSpeeds = swerve.getRobotRelativeSpeeds();
+        double fieldVx = robotSpeeds.vxMetersPerSecond * pose.getRotation().getCos() - robotSpeeds.vyMetersPerSecond * pose.getRotation().getSin();
+        double fieldVy = robotSpeeds.vxMetersPerSecond * pose.getRotation().getSin() + robotSpeeds.vyMetersPerSecond * pose.getRotation().getCos();
+
+        double dx = pose.getX() - goal.getX();
+        double dy = pose.getY() - goal.getY();
+        double distance = Math.hypot(dx, dy);
+        /* rate of change of the distance to the goal */
+        double distanceRate = distance > 1e-6 ? (fieldVx * dx + fieldVy * dy) / distance : 0;
+
+        driveController.reset(distance, Math.min(distanceRate, 0.0));
+        thetaController.reset(pose.getRotation().getRadians(), swerve.getYawRate());
+        swerve.setDriveController(this::calculate);
+    }
+
+    @Override
+    public void execute() {
+        /* the whole goal comes from calculate */
+        swerve.drive(0, 0, 0, true, false);
+    }
+
+    private void calculate(double x, double y, double heading, double yawRate, double[] speeds) {
+        Pose2d goal = getGoal();
+
+        double dx = x - goal.getX();
+        double dy = y - goal.getY();
+        double distance = Math.hypot(dx, dy);
+
+        /* profile drives the distance to zero, its setpoint velocity is negative while closing */
+        double driveVelocity = driveController.calculate(distance, 0.0) + driveController.getSetpoint().velocity;
+        if (distance < Constants.DriveToPoseConstants.DRIVE_TOLERANCE) {
+            driveVelocity = 0;
+        }
+        double vx = distance > 1e-6 ? driveVelocity * dx / distance : 0;
+        double vy = distance > 1e-6 ? driveVelocity * dy / distance : 0;
+
+        double omega = thetaController.calculate(heading, goal.getRotation().getRadians()) + thetaController.getSetpoint().velocity;
+        if (Math.abs(MathUtil.angleModulus(goal.getRotation().getRadians() - heading)) < Constants.DriveToPoseConstants.THETA_TOLERANCE) {
+            omega = 0;
+        }
+
+        speeds[0] = vx;
+        speeds[1] = vy;
+        speeds[2] = omega;
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        swerve.setDriveController(null);
+        swerve.drive(0, 0, 0, true, false);
+    }
+
+    @Override
+    public boolean isFinished() {
+        Pose2d pose = swerve.getPose();
+        Pose2d goal = getGoal();
+        ChassisSpeeds speeds = swerve.getRobotRelativeSpeeds();
+        Rotation2d headingError = goal.getRotation().minus(pose.getRotation());
+
+        return pose.getTranslation().getDistance(goal.getTranslation()) < Constants.DriveToPoseConstants.DRIVE_TOLERANCE
+            && Math.abs(headingError.getRadians()) < Constants.DriveToPoseConstants.THETA_TOLERANCE
+            && Math.hypot(speeds.vxMetersPerSecond, speeds.vyMetersPerSecond) < Constants.DriveToPoseConstants.DRIVE_VELOCITY_TOLERANCE
+            && Math.abs(swerve.getYawRate()) < Constants.DriveToPoseConstants.THETA_VELOCITY_TOLERANCE;
+    }
+}
@@ -7,19 +7,36 @@ import java.util.function.BooleanSupplier;
 import java.util.function.DoubleSupplier;
 
 import edu.wpi.first.math.MathUtil;
-import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.controller.ProfiledPIDController;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.trajectory.TrapezoidProfile;
 import edu.wpi.first.wpilibj2.command.Command;
 
 
-public class TeleopSwerve extends Command {    
-    private Swerve swerve;    
+public class TeleopSwerve extends Command {
+    private Swerve swerve;
     private DoubleSupplier translationSup;
     private DoubleSupplier strafeSup;
     private DoubleSupplier rotationSup;
     private BooleanSupplier lockSup;
     private BooleanSupplier robotCentricSup;
+    private BooleanSupplier snapReefSup;
+    private BooleanSupplier snapStationSup;
+
+    /* heading hold / snap, null while the driver is turning. Runs as the swerve's drive controller */
+    private ProfiledPIDController headingController;
+    private Rotation2d headingGoal;
+    /* a pose reset makes a held heading meaningless */
+    private int poseResets;
+    /* written before drive(), which hands them to the control thread under its lock */
+    private boolean snapReef;
+    private boolean snapStation;
 
     public TeleopSwerve(Swerve swerve, DoubleSupplier translationSup, DoubleSupplier strafeSup, DoubleSupplier rotationSup, BooleanSupplier lockSup, BooleanSupplier robotCentricSup) {
+        this(swerve, translationSup, strafeSup, rotationSup, lockSup, robotCentricSup, () -> false, () -> false);
+    }
+
+    public TeleopSwerve(Swerve swerve, DoubleSupplier translationSup, DoubleSupplier strafeSup, DoubleSupplier rotationSup, BooleanSupplier lockSup, BooleanSupplier robotCentricSup, BooleanSupplier snapReefSup, BooleanSupplier snapStationSup) {
         this.swerve = swerve;
         addRequirements(swerve);
 
@@ -28,10 +45,25 @@ public class TeleopSwerve extends Command {
         this.rotationSup = rotationSup;
         this.lockSup = lockSup;
         this.robotCentricSup = robotCentricSup;
+        this.snapReefSup = snapReefSup;
+        this.snapStationSup = snapStationSup;
+
+        headingController = new ProfiledPIDController(
+            Constants.HeadingConstants.P,
+            Constants.HeadingConstants.I,
+            Constants.HeadingConstants.D,
+            new TrapezoidProfile.Constraints(Constants.HeadingConstants.MAX_VELOCITY, Constants.HeadingConstants.MAX_ACCELERATION),
+            swerve.getControlPeriod());
+        headingController.enableContinuousInput(-Math.PI, Math.PI);
+        headingController.setTolerance(Constants.HeadingConstants.TOLERANCE);
     }
 
     @Override
-    public void initialize() {}
+    public void initialize() {
+        headingGoal = null;
+        poseResets = swerve.getPoseResetCount();
+        swerve.setDriveController(this::calculateRotation);
+    }
 
     @Override
     public void execute() {
@@ -40,14 +72,77 @@ public class TeleopSwerve extends Command {
         double rotationVal = MathUtil.applyDeadband(rotationSup.getAsDouble(), Constants.ControlConstants.STICK_DEADBAND);
 
         if(!lockSup.getAsBoolean()) {
+            snapReef = snapReefSup.getAsBoolean();
+            snapStation = snapStationSup.getAsBoolean();
             swerve.drive(
-                new Translation2d(translationVal, strafeVal).times(Constants.SwerveConstants.maxSpeed), 
-                rotationVal * Constants.SwerveConstants.maxAngularVelocity, 
-                !robotCentricSup.getAsBoolean(), 
+                translationVal * Constants.SwerveConstants.maxSpeed,
+                strafeVal * Constants.SwerveConstants.maxSpeed,
+                rotationVal * Constants.SwerveConstants.maxAngularVelocity,
+                !robotCentricSup.getAsBoolean(),
                 true
             );
         }else {
+            /* setX stops the controller from running, so this can't race it */
             swerve.setX();
+            headingGoal = null;
+        }
+    }
+
+    @Override
+    public void end(boolean interrupted) {
+        swerve.setDriveController(null);
+    }
+
+    /**
+     * Stick input always wins. With the stick released the heading is held where the robot
+     * stops turning, or snapped to the nearest reef face / coral station while a snap button is held.
+     * Uses the pose and yaw rate the swerve passes in, so no extra sensor reads.
+     */
+    private void calculateRotation(double x, double y, double heading, double yawRate, double[] speeds) {
+        int resets = swerve.getPoseResetCount();
+        if (resets != poseResets) {
+            poseResets = resets;
+            headingGoal = null;
+        }
+        if (speeds[2] != 0) {
+            headingGoal = null;
+            return;
+        }
+
+        Rotation2d snapGoal = null;
+        if (snapReef) {
+            snapGoal = nearest(heading, Constants.HeadingConstants.REEF_FACE_ANGLES);
+        } else if (snapStation) {
+            snapGoal = nearest(heading, Constants.HeadingConstants.CORAL_STATION_ANGLES);
+        }
+
+        if (snapGoal != null && !snapGoal.equals(headingGoal)) {
+            engage(heading, yawRate, snapGoal);
+        } else if (headingGoal == null) {
+            /* hold where the robot will come to rest at max deceleration, not where the stick was released */
+            double stoppingAngle = yawRate * Math.abs(yawRate) / (2.0 * Constants.HeadingConstants.MAX_ACCELERATION);
+            engage(heading, yawRate, Rotation2d.fromRadians(heading + stoppingAngle));
+        }
+
+        double output = headingController.calculate(heading, headingGoal.getRadians());
+        speeds[2] = headingController.atGoal() ? 0 : output + headingController.getSetpoint().velocity;
+    }
+
+    private void engage(double heading, double yawRate, Rotation2d goal) {
+        headingController.reset(heading, yawRate);
+        headingGoal = goal;
+    }
+
+    private static Rotation2d nearest(double heading, Rotation2d[] options) {
+        Rotation2d best = options[0];
+        double bestError = Double.MAX_VALUE;
+        for (Rotation2d option : options) {
+            double error = Math.abs(MathUtil.angleModulus(option.getRadians() - heading));
+            if (error < bestError) {
+                bestError = error;
+                best = option;
+            }
         }
+        return best;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,68 @@
+package frc.robot.commands.auto;
+
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.apriltag.AprilTagFields;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Transform2d;
+import frc.robot.Constants;
+import frc.robot.commands.swerve.DriveToPose;
+import frc.robot.subsystems.Swerve;
+
+/**
+ * Field relative replacement for AutoAlignToReefTagRelative. The closest reef tag is picked once
+ * when the command starts and the scoring pose in front of it is driven to off the pose estimator,
+ * so losing the tag for a few frames doesn't stop the alignment.
+ */
+public class AutoAlignToReef extends DriveToPose {
+
+  private static final AprilTagFieldLayout FIELD_LAYOUT = AprilTagFieldLayout.loadField(AprilTagFields.kDefaultField);
+  private static final int[] REEF_TAG_IDS = {6, 7, 8, 9, 10, 11, 17, 18, 19, 20, 21, 22};
+
+  private Swerve swerve;
+  private boolean isRightScore;
+  private Pose2d goal;
+
+  public AutoAlignToReef(boolean isRightScore, Swerve swerve) {
+    super(swerve, () -> null);
+    this.swerve = swerve;
+    this.isRightScore = isRightScore;
+  }
+
+  @Override
+  public void initialize() {
+    goal = closestScoringPose(swerve.getPose());
+    super.initialize();
+  }
+
+  @Override
+  protected Pose2d getGoal() {
+    return goal;
+  }
+
+  // facing the tag, the robot's right is the tag's +y
+  private Pose2d closestScoringPose(Pose2d pose) {
+    Pose2d closestTag = null;
+    double closestDistance = Double.MAX_VALUE;
+    for (int id : REEF_TAG_IDS) {
+      var tagPose = FIELD_LAYOUT.getTagPose(id);
+      if (tagPose.isEmpty()) {
+        continue;
+      }
+      Pose2d tag = tagPose.get().toPose2d();
+      double distance = tag.getTranslation().getDistance(pose.getTranslation());
+      if (distance < closestDistance) {
+        closestDistance = distance;
+        closestTag = tag;
+      }
+    }
+
+    if (closestTag == null) {
+      return pose;
+    }
+    return closestTag.transformBy(new Transform2d(
+      Constants.DriveToPoseConstants.REEF_ALIGN_DISTANCE,
+      isRightScore ? Constants.DriveToPoseConstants.REEF_ALIGN_OFFSET : -Constants.DriveToPoseConstants.REEF_ALIGN_OFFSET,
+      Rotation2d.k180deg));
+  }
+}
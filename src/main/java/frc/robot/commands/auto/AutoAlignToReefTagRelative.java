@@ -9,7 +9,7 @@ import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.Command;
-import frc.lib.LimelightHelpers;
+import frc.lib.LimelightCamera;
 import frc.robot.Constants;
 import frc.robot.subsystems.Swerve;
 
@@ -18,6 +18,7 @@ public class AutoAlignToReefTagRelative extends Command {
   private boolean isRightScore;
   private Timer dontSeeTagTimer, stopTimer;
   private Swerve swerve;
+  private LimelightCamera camera = LimelightCamera.get(Constants.VisionConstants.ALIGN_LIMELIGHT);
   private double tagID = -1;
 
   public AutoAlignToReefTagRelative(boolean isRightScore, Swerve swerve) {
@@ -45,15 +46,15 @@ public class AutoAlignToReefTagRelative extends Command {
     yController.setSetpoint(isRightScore ? 0.16 : -0.16);
     yController.setTolerance(0.02);
 
-    tagID = LimelightHelpers.getFiducialID("limelight-front");
+    tagID = camera.getFiducialID();
   }
 
   @Override
   public void execute() {
-    if (LimelightHelpers.getTV("limelight-front") && LimelightHelpers.getFiducialID("limelight-front") == tagID) {
+    if (camera.getTV() && camera.getFiducialID() == tagID) {
       this.dontSeeTagTimer.reset();
 
-      double[] postions = LimelightHelpers.getBotPose_TargetSpace("limelight-front");
+      double[] postions = camera.getBotPoseTargetSpace();
       SmartDashboard.putNumber("Align/X Position", postions[2]);
 
       double xSpeed = xController.calculate(postions[2]);
@@ -1,20 +1,25 @@
 package frc.robot.subsystems;
 
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.DutyCycleOut;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.lib.ControlOutput;
 import frc.robot.Constants;
 
 public class Climber extends SubsystemBase {
 
   private static TalonFX motor;
   private static TalonFXConfiguration config;
+  private ControlOutput motorOutput;
+  private DutyCycleOut dutyCycle = new DutyCycleOut(0).withUpdateFreqHz(ControlOutput.UPDATE_FREQUENCY);
 
   public Climber() {
     motor = new TalonFX(Constants.ID.CLIMBER_TALONFX_ID);
+    motorOutput = new ControlOutput("Climber", motor, motor::setControl);
 
     config = new TalonFXConfiguration();
     config.CurrentLimits.SupplyCurrentLimit = Constants.ClimberConstants.CURRENT_LIMIT;
@@ -25,11 +30,11 @@ public class Climber extends SubsystemBase {
   }
   
   public void runClimber(double desiredSpeed){
-    motor.set(desiredSpeed);
+    motorOutput.set(dutyCycle.withOutput(desiredSpeed), desiredSpeed);
   }
   
   public void stop(){
-    motor.stopMotor();
+    motorOutput.stop();
   }   
 
   @Override
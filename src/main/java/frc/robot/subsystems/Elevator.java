@@ -1,6 +1,13 @@
 package frc.robot.subsystems;
 
+import static edu.wpi.first.units.Units.Rotations;
+import static edu.wpi.first.units.Units.RotationsPerSecond;
+import static edu.wpi.first.units.Units.Second;
+import static edu.wpi.first.units.Units.Volts;
+
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.DutyCycleOut;
+import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.controls.Follower;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.InvertedValue;
@@ -9,8 +16,18 @@ import com.reduxrobotics.sensors.canandmag.Canandmag;
 import com.reduxrobotics.sensors.canandmag.CanandmagSettings;
 
 import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.units.measure.MutAngle;
+import edu.wpi.first.units.measure.MutAngularVelocity;
+import edu.wpi.first.units.measure.MutVoltage;
+import edu.wpi.first.units.measure.Voltage;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj.sysid.SysIdRoutineLog;
+import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
+import frc.lib.ControlOutput;
+import frc.lib.SysIdFitter;
 import frc.robot.Constants;
 
 public class Elevator extends SubsystemBase {
@@ -21,9 +38,22 @@ public class Elevator extends SubsystemBase {
   private Canandmag canandmag;
   private CanandmagSettings canandmagSettings;
   private PIDController controller;
+  private ControlOutput motorOutput;
+  private DutyCycleOut dutyCycle = new DutyCycleOut(0).withUpdateFreqHz(ControlOutput.UPDATE_FREQUENCY);
+
+  // sysid, the pid loop is paused while a test runs
+  private SysIdRoutine sysIdRoutine;
+  private SysIdFitter sysIdFitter = new SysIdFitter(SysIdFitter.Model.ELEVATOR);
+  private VoltageOut sysIdRequest = new VoltageOut(0).withUpdateFreqHz(ControlOutput.UPDATE_FREQUENCY);
+  private MutVoltage sysIdVoltage = Volts.mutable(0);
+  private MutAngle sysIdPosition = Rotations.mutable(0);
+  private MutAngularVelocity sysIdVelocity = RotationsPerSecond.mutable(0);
+  private double sysIdVolts = 0;
+  private boolean characterizing = false;
   
   public Elevator() {
     motor = new TalonFX(Constants.ID.ELEVATOR_MASTER_TALONFX_ID);
+    motorOutput = new ControlOutput("Elevator", motor, motor::setControl);
     follower = new TalonFX(Constants.ID.ELEVATOR_FOLLOWER_TALONFX_ID);
     canandmag = new Canandmag(Constants.ID.ELEVATOR_ENCODER_ID);
     canandmag.setPosition(0);
@@ -56,6 +86,11 @@ public class Elevator extends SubsystemBase {
     follower.setNeutralMode(NeutralModeValue.Brake);
 
     follower.setControl(new Follower(10, true));
+
+    // slow ramp and small step, the mechanism only has a couple of rotations of travel
+    sysIdRoutine = new SysIdRoutine(
+      new SysIdRoutine.Config(Volts.of(0.5).per(Second), Volts.of(2), null),
+      new SysIdRoutine.Mechanism(this::runCharacterization, this::logCharacterization, this));
   }
 
   public void goTowardsDesiredPosition() {
@@ -79,16 +114,62 @@ public class Elevator extends SubsystemBase {
       desiredSpeed = 0;
     }
 
-    motor.set(desiredSpeed + Constants.ElevatorConstants.G);
+    double output = desiredSpeed + Constants.ElevatorConstants.G;
+    motorOutput.set(dutyCycle.withOutput(output), output);
   }
 
   public boolean atSetpoint() {
     return controller.atSetpoint();
   }
 
+  public double getPosition() {
+    return canandmag.getPosition();
+  }
+
+  public Command sysIdQuasistatic(SysIdRoutine.Direction direction) {
+    return characterize(sysIdRoutine.quasistatic(direction), direction);
+  }
+
+  public Command sysIdDynamic(SysIdRoutine.Direction direction) {
+    return characterize(sysIdRoutine.dynamic(direction), direction);
+  }
+
+  // stop at the soft limits, then hold wherever the test left the mechanism
+  private Command characterize(Command test, SysIdRoutine.Direction direction) {
+    return test
+      .until(() -> direction == SysIdRoutine.Direction.kForward
+        ? getPosition() >= Constants.ElevatorConstants.FORWARD_LIMIT
+        : getPosition() <= Constants.ElevatorConstants.REVERSE_LIMIT)
+      .beforeStarting(() -> characterizing = true)
+      .finallyDo(() -> {
+        characterizing = false;
+        controller.reset();
+        controller.setSetpoint(getPosition());
+        sysIdFitter.publish("Elevator/SysId");
+      });
+  }
+
+  private void runCharacterization(Voltage volts) {
+    sysIdVolts = volts.in(Volts);
+    motorOutput.set(sysIdRequest.withOutput(sysIdVolts), sysIdVolts);
+  }
+
+  // canandmag rotations, kG comes out as the constant voltage to hold the carriage
+  private void logCharacterization(SysIdRoutineLog log) {
+    double position = getPosition();
+    double velocity = canandmag.getVelocity();
+    log.motor("elevator")
+      .voltage(sysIdVoltage.mut_replace(sysIdVolts, Volts))
+      .angularPosition(sysIdPosition.mut_replace(position, Rotations))
+      .angularVelocity(sysIdVelocity.mut_replace(velocity, RotationsPerSecond));
+    sysIdFitter.addSample(Timer.getFPGATimestamp(), sysIdVolts, position, velocity);
+  }
+
   @Override
   public void periodic() {
-    goTowardsDesiredPosition();
+    if (!characterizing) {
+      goTowardsDesiredPosition();
+    }
     SmartDashboard.putBoolean("Elevator/at Setpoint", controller.atSetpoint());
     SmartDashboard.putNumber("Elevator/Setpoint", controller.getSetpoint());
     SmartDashboard.putNumber("Elevator/Velocity", canandmag.getVelocity());
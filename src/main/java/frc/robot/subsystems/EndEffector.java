@@ -1,21 +1,26 @@
 package frc.robot.subsystems;
 
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.DutyCycleOut;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.lib.ControlOutput;
 import frc.robot.Constants;
 
 public class EndEffector extends SubsystemBase {
 
   private TalonFX motor;
   private TalonFXConfiguration config;
+  private ControlOutput motorOutput;
+  private DutyCycleOut dutyCycle = new DutyCycleOut(0).withUpdateFreqHz(ControlOutput.UPDATE_FREQUENCY);
 
   public EndEffector() {
     motor = new TalonFX(Constants.ID.END_EFFECTOR_TALONFX_ID);
+    motorOutput = new ControlOutput("EndEffector", motor, motor::setControl);
     config = new TalonFXConfiguration();
     config.CurrentLimits.SupplyCurrentLimit = Constants.EndEffectorConstants.CURRENT_LIMIT;
     config.CurrentLimits.SupplyCurrentLimitEnable = true;
@@ -26,11 +31,11 @@ public class EndEffector extends SubsystemBase {
   }
 
   public void setSpeed(double speed) {
-    motor.set(speed);
+    motorOutput.set(dutyCycle.withOutput(speed), speed);
   }
 
   public void stop() {
-    motor.stopMotor();
+    motorOutput.stop();
   }
 
   @Override
@@ -2,6 +2,7 @@ package frc.robot.subsystems;
 
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.robot.Constants;
 import frc.robot.NessieState;
 import frc.robot.commands.position.SetArmPosition;
 import frc.robot.commands.position.SetElevatorPosition;
@@ -38,6 +39,10 @@ public class StateMachine extends SubsystemBase {
   private NessieState currentState;
   private double armClearancePosition = 0.437;
 
+  // center of mass above the floor and ahead of the robot center, meters
+  private double centerOfMassHeight;
+  private double centerOfMassOffset;
+
   private Elevator elevator;
   private Arm arm;
   private IntakePivot IntakePivot;
@@ -76,8 +81,38 @@ public class StateMachine extends SubsystemBase {
     return currentState;
   }
 
+  public double getCenterOfMassHeight() {
+    return centerOfMassHeight;
+  }
+
+  public double getCenterOfMassOffset() {
+    return centerOfMassOffset;
+  }
+
+  // lumped masses: chassis, elevator carriage, and the arm at its center of mass out from the pivot
+  private void updateCenterOfMass() {
+    double carriageHeight = Constants.CenterOfMassConstants.CARRIAGE_STOWED_HEIGHT
+      + elevator.getPosition() * Constants.CenterOfMassConstants.ELEVATOR_METERS_PER_ROTATION;
+
+    double armAngle = arm.getAngle();
+    double armHeight = carriageHeight - Constants.CenterOfMassConstants.ARM_COM_LENGTH * Math.cos(armAngle);
+    double armOffset = Constants.CenterOfMassConstants.ARM_PIVOT_OFFSET + Constants.CenterOfMassConstants.ARM_COM_LENGTH * Math.sin(armAngle);
+
+    double chassisMass = Constants.CenterOfMassConstants.CHASSIS_MASS;
+    double carriageMass = Constants.CenterOfMassConstants.CARRIAGE_MASS;
+    double armMass = Constants.CenterOfMassConstants.ARM_MASS;
+    double totalMass = chassisMass + carriageMass + armMass;
+
+    centerOfMassHeight = (chassisMass * Constants.CenterOfMassConstants.CHASSIS_COM_HEIGHT
+      + carriageMass * carriageHeight + armMass * armHeight) / totalMass;
+    centerOfMassOffset = (carriageMass * Constants.CenterOfMassConstants.ARM_PIVOT_OFFSET + armMass * armOffset) / totalMass;
+  }
+
   @Override
   public void periodic() {
+    updateCenterOfMass();
+    SmartDashboard.putNumber("StateMachine/Center of Mass Height", centerOfMassHeight);
+    SmartDashboard.putNumber("StateMachine/Center of Mass Offset", centerOfMassOffset);
     SmartDashboard.putBoolean("StateMachine/Elevated", getCurrentState().isElevated());
     SmartDashboard.putBoolean("StateMachine/Extended", getCurrentState().isExtended());
     SmartDashboard.putBoolean("StateMachine/Intake Extended", getCurrentState().isIntakeExtended());
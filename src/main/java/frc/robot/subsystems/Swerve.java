@@ -1,12 +1,25 @@
 package frc.robot.subsystems;
 
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
 import com.ctre.phoenix6.configs.Pigeon2Configuration;
 import com.ctre.phoenix6.hardware.Pigeon2;
 import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.config.PIDConstants;
 import com.pathplanner.lib.config.RobotConfig;
 import com.pathplanner.lib.controllers.PPHolonomicDriveController;
+import com.pathplanner.lib.util.DriveFeedforwards;
 
+import static edu.wpi.first.units.Units.Meters;
+import static edu.wpi.first.units.Units.MetersPerSecond;
+import static edu.wpi.first.units.Units.Rotations;
+import static edu.wpi.first.units.Units.RotationsPerSecond;
+import static edu.wpi.first.units.Units.Volts;
+
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
@@ -16,37 +29,143 @@ import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
 import edu.wpi.first.math.util.Units;
+import edu.wpi.first.units.measure.Angle;
+import edu.wpi.first.units.measure.AngularVelocity;
+import edu.wpi.first.units.measure.MutAngle;
+import edu.wpi.first.units.measure.MutAngularVelocity;
+import edu.wpi.first.units.measure.MutDistance;
+import edu.wpi.first.units.measure.MutLinearVelocity;
+import edu.wpi.first.units.measure.MutVoltage;
+import edu.wpi.first.units.measure.Voltage;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.networktables.StructPublisher;
 import edu.wpi.first.wpilibj.DriverStation;
-import edu.wpi.first.wpilibj.smartdashboard.Field2d;
-import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotBase;
+import edu.wpi.first.wpilibj.Threads;
+import edu.wpi.first.wpilibj.TimedRobot;
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.sysid.SysIdRoutineLog;
+import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
+import frc.lib.Conversions;
 import frc.lib.Elastic;
+import frc.lib.LimelightCamera;
 import frc.lib.LimelightHelpers;
+import frc.lib.PoseHistory;
+import frc.lib.PoseSnapshot;
+import frc.lib.SysIdFitter;
+import frc.lib.SwerveKinematics4;
+import frc.lib.SwerveSetpointLimiter;
 import frc.lib.Elastic.Notification;
 import frc.robot.Constants;
+import frc.robot.DriveGoal;
+import frc.robot.OdometryThread;
+import frc.robot.SlipDetector;
+import frc.robot.SwerveDriveSim;
 import frc.robot.SwerveModule;
+import frc.robot.SwerveTelemetry;
+import frc.robot.VisionIngestor;
 
 public class Swerve extends SubsystemBase {
+
+    /** Closed loop part of a drive goal, runs on the control thread when it is enabled. */
+    @FunctionalInterface
+    public interface DriveController {
+        /**
+         * @param x Estimated Field X: (in Meters)
+         * @param y Estimated Field Y: (in Meters)
+         * @param heading Estimated Heading: (in Radians)
+         * @param yawRate Counterclockwise Yaw Rate: (in Radians per Second)
+         * @param speeds Scaled drive() goal as {vx, vy, omega}, overwrite what the controller owns
+         */
+        void calculate(double x, double y, double heading, double yawRate, double[] speeds);
+    }
+
+    private enum GoalType {
+        /* modules were written directly (setX, setModuleStates, SysId), nothing to re-run */
+        NONE,
+        DRIVE,
+        ROBOT_RELATIVE
+    }
+
     private SwerveDrivePoseEstimator poseEstimator;
-    private Field2d field;
     private SwerveModule[] swerveModules;
     private Pigeon2 gyro;
-    private double speedMultiplier;
+    private StatusSignal<Angle> gyroYaw;
+    private StatusSignal<AngularVelocity> gyroRate;
+    private StatusSignal<Angle> gyroPitch;
+    private StatusSignal<Angle> gyroRoll;
+    private BaseStatusSignal[] cachedSignals;
+    /* read by the control thread */
+    private volatile double speedMultiplier;
+    private volatile int poseResets = 0;
     public String desiredAlignment = "center";
-    private StructPublisher<Pose2d> posePublisher;
+    private RobotConfig robotConfig;
+    private SwerveDriveSim swerveSim;
+    private StructPublisher<Pose2d> simPosePublisher;
+    private OdometryThread odometryThread;
+    private SwerveTelemetry telemetry;
+    private final SlipDetector slipDetector = new SlipDetector(RobotBase.isReal());
+    private final VisionIngestor visionIngestor = new VisionIngestor(Constants.VisionConstants.LOCALIZATION_LIMELIGHTS);
+    private final Object odometryLock = new Object();
+    /* latest estimate for readers on any thread, published under odometryLock */
+    private final PoseSnapshot poseSnapshot = new PoseSnapshot();
+    private final SwerveKinematics4 kinematics = new SwerveKinematics4(Constants.SwerveConstants.moduleX, Constants.SwerveConstants.moduleY);
+    private final SwerveSetpointLimiter setpointLimiter = new SwerveSetpointLimiter(
+        kinematics,
+        Constants.SwerveConstants.maxModuleAcceleration,
+        Constants.SwerveConstants.maxModuleSteerVelocity
+    );
+    /** Seconds after a slip or collision that vision is trusted over odometry */
+    private static final double SLIP_VISION_WINDOW = 0.5;
+    /* characterization, each module is logged and the average is fit live */
+    private final SysIdRoutine driveRoutine;
+    private final SysIdRoutine steerRoutine;
+    private final SysIdFitter driveFitter = new SysIdFitter(SysIdFitter.Model.SIMPLE);
+    private final SysIdFitter steerFitter = new SysIdFitter(SysIdFitter.Model.SIMPLE);
+    private final MutVoltage sysIdVoltage = Volts.mutable(0);
+    private final MutDistance sysIdDistance = Meters.mutable(0);
+    private final MutLinearVelocity sysIdLinearVelocity = MetersPerSecond.mutable(0);
+    private final MutAngle sysIdAngle = Rotations.mutable(0);
+    private final MutAngularVelocity sysIdAngularVelocity = RotationsPerSecond.mutable(0);
+    private double driveCharacterizationVolts = 0;
+    private double steerCharacterizationVolts = 0;
+    /* 1.5 seconds of main loop poses */
+    private final PoseHistory poseHistory = new PoseHistory(75);
+    private final double[] targetSpeeds = new double[4];
+    private final double[] targetAngles = new double[4];
+    private double lastSetpointTime = 0;
+    /* center of mass from the StateMachine, stowed until it is wired up */
+    private DoubleSupplier centerOfMassHeight = () -> Constants.CenterOfMassConstants.CHASSIS_COM_HEIGHT;
+    private DoubleSupplier centerOfMassOffset = () -> 0.0;
+    /* written by the main loop and read by the control thread, volatile so doubles never tear */
+    private volatile double allowedAcceleration = Constants.SwerveConstants.maxModuleAcceleration;
+    private volatile double allowedSpeed = Constants.SwerveConstants.maxSpeed;
+    private volatile double thermalAcceleration = Constants.SwerveConstants.maxModuleAcceleration;
+    /* latest drive goal, run inline or by the control thread, everything below is guarded by controlLock */
+    private final Object controlLock = new Object();
+    private Notifier controlNotifier;
+    private GoalType goalType = GoalType.NONE;
+    private final double[] goalSpeeds = new double[3];
+    private final double[] goalAccelerations = new double[4];
+    private final DriveGoal driveGoal = new DriveGoal();
+    /* pose read for the drive goal, main loop and control thread both hold controlLock */
+    private final PoseSnapshot.Sample controlSample = new PoseSnapshot.Sample();
+    private boolean goalFieldRelative;
+    private boolean goalOpenLoop;
+    private DriveController driveController;
+    /* control thread only */
+    private boolean controlPrioritySet = false;
+    private double lastControlTime = 0;
+    private volatile double measuredControlFrequency = 0;
 
     public Swerve() {
         gyro = new Pigeon2(Constants.SwerveConstants.pigeonID, "cani");
         gyro.getConfigurator().apply(new Pigeon2Configuration());
         speedMultiplier = 1.0;
 
-        field = new Field2d();
-
-        posePublisher = NetworkTableInstance.getDefault()
-            .getStructTopic("RobotPose", Pose2d.struct).publish();
-
         swerveModules = new SwerveModule[] {
             new SwerveModule(0, Constants.SwerveConstants.Mod0.constants),
             new SwerveModule(1, Constants.SwerveConstants.Mod1.constants),
@@ -54,6 +173,22 @@ public class Swerve extends SubsystemBase {
             new SwerveModule(3, Constants.SwerveConstants.Mod3.constants)
         };
 
+        /* every signal the main loop reads, refreshed together in one batched call */
+        gyroYaw = gyro.getYaw();
+        gyroRate = gyro.getAngularVelocityZWorld();
+        gyroPitch = gyro.getPitch();
+        gyroRoll = gyro.getRoll();
+        int signalsPerModule = swerveModules[0].getCachedSignals().length;
+        cachedSignals = new BaseStatusSignal[swerveModules.length * signalsPerModule + 4];
+        for (SwerveModule mod : swerveModules) {
+            System.arraycopy(mod.getCachedSignals(), 0, cachedSignals, mod.moduleNumber * signalsPerModule, signalsPerModule);
+        }
+        cachedSignals[cachedSignals.length - 4] = gyroYaw;
+        cachedSignals[cachedSignals.length - 3] = gyroRate;
+        cachedSignals[cachedSignals.length - 2] = gyroPitch;
+        cachedSignals[cachedSignals.length - 1] = gyroRoll;
+        refreshSignals();
+
         poseEstimator = new SwerveDrivePoseEstimator(
             Constants.SwerveConstants.swerveKinematics,
             getGyroYaw(),
@@ -61,14 +196,40 @@ public class Swerve extends SubsystemBase {
             new Pose2d()
         );
 
+        odometryThread = new OdometryThread(
+            swerveModules,
+            gyro.getYaw().clone(),
+            gyro.getAngularVelocityZWorld().clone(),
+            gyro.getAccelerationX().clone(),
+            gyro.getAccelerationY().clone(),
+            slipDetector,
+            poseEstimator,
+            poseSnapshot,
+            odometryLock,
+            Constants.SwerveConstants.odometryFrequency
+        );
+        odometryThread.start();
+
+        telemetry = new SwerveTelemetry(this, swerveModules, odometryThread, slipDetector);
+
+        driveRoutine = new SysIdRoutine(
+            new SysIdRoutine.Config(),
+            new SysIdRoutine.Mechanism(this::runDriveCharacterization, this::logDriveCharacterization, this, "swerve-drive")
+        );
+        steerRoutine = new SysIdRoutine(
+            new SysIdRoutine.Config(null, Volts.of(4), null),
+            new SysIdRoutine.Mechanism(this::runSteerCharacterization, this::logSteerCharacterization, this, "swerve-steer")
+        );
+
         try {
             RobotConfig config;
             config = RobotConfig.fromGUISettings();
+            robotConfig = config;
             AutoBuilder.configure(
                 this::getPose,
                 this::resetPose,
                 this::getRobotRelativeSpeeds,
-                this::driveRobotRelative,
+                (speeds, feedforwards) -> driveRobotRelative(speeds, feedforwards),
                 new PPHolonomicDriveController(
                     new PIDConstants(5.0, 0.0, 0.0),
                     new PIDConstants(5.0, 0.0, 0.0)
@@ -81,6 +242,30 @@ public class Swerve extends SubsystemBase {
             Elastic.sendNotification(new Notification(Notification.NotificationLevel.ERROR, "Failed to configure AutoBuilder", "The AutoBuilder could not be configured. " + e.getMessage()));
         }
 
+        /* physics sim uses the mass, MOI and wheel COF from the PathPlanner settings */
+        if (RobotBase.isSimulation()) {
+            if (robotConfig != null) {
+                swerveSim = new SwerveDriveSim(
+                    swerveModules,
+                    gyro.getSimState(),
+                    robotConfig.massKG,
+                    robotConfig.MOI,
+                    robotConfig.moduleConfig.wheelCOF,
+                    robotConfig.moduleConfig.wheelRadiusMeters
+                );
+                simPosePublisher = NetworkTableInstance.getDefault()
+                    .getStructTopic("Swerve/Sim Pose", Pose2d.struct).publish();
+            } else {
+                DriverStation.reportWarning("Drivetrain sim disabled, PathPlanner settings could not be loaded.", false);
+            }
+        }
+
+        /* started last, the loop only runs goals so it needs everything above */
+        if (Constants.SwerveConstants.useControlThread) {
+            controlNotifier = new Notifier(this::runControlLoop);
+            controlNotifier.setName("Swerve Control");
+            controlNotifier.startPeriodic(1.0 / Constants.SwerveConstants.controlFrequency);
+        }
     }
 
     public void setDesiredAlignment(String desiredAlignment) {
@@ -95,41 +280,189 @@ public class Swerve extends SubsystemBase {
         this.speedMultiplier = speedMultiplier;
     }
 
+    /**
+     * Lets the drivetrain follow the mechanism's center of mass, see {@link #updateDriveLimits()}.
+     * @param height Center of Mass Height above the floor: (in Meters)
+     * @param offset Center of Mass Offset ahead of the robot center: (in Meters)
+     */
+    public void setCenterOfMassSuppliers(DoubleSupplier height, DoubleSupplier offset) {
+        this.centerOfMassHeight = height;
+        this.centerOfMassOffset = offset;
+    }
+
+    /**
+     * @return Drive Acceleration allowed by the center of mass: (in Meters per Second Squared)
+     */
+    public double getAllowedAcceleration() {
+        return allowedAcceleration;
+    }
+
+    /**
+     * @return Teleop Top Speed allowed by the center of mass: (in Meters per Second)
+     */
+    public double getAllowedSpeed() {
+        return allowedSpeed;
+    }
+
     public void drive(Translation2d translation, double rotation, boolean fieldRelative, boolean isOpenLoop) {
-        SwerveModuleState[] swerveModuleStates =
-            Constants.SwerveConstants.swerveKinematics.toSwerveModuleStates(fieldRelative
-                ? ChassisSpeeds.fromFieldRelativeSpeeds(
-                    translation.getX() * speedMultiplier,
-                    translation.getY() * speedMultiplier,
-                    rotation * speedMultiplier,
-                    getHeading()
-                )
-                : new ChassisSpeeds(
-                    translation.getX() * speedMultiplier,
-                    translation.getY() * speedMultiplier,
-                    rotation * speedMultiplier)
-            );
+        drive(translation.getX(), translation.getY(), rotation, fieldRelative, isOpenLoop);
+    }
 
-        SwerveDriveKinematics.desaturateWheelSpeeds(swerveModuleStates, Constants.SwerveConstants.maxSpeed);
-        for (SwerveModule mod : swerveModules) {
-            mod.setDesiredState(swerveModuleStates[mod.moduleNumber], isOpenLoop);
+    /**
+     * Allocation free, sets the drive goal the control thread re-runs each period.
+     * @param xSpeed Forward Velocity: (in Meters per Second)
+     * @param ySpeed Left Velocity: (in Meters per Second)
+     * @param rotation Counterclockwise Angular Velocity: (in Radians per Second)
+     */
+    public void drive(double xSpeed, double ySpeed, double rotation, boolean fieldRelative, boolean isOpenLoop) {
+        synchronized (controlLock) {
+            goalType = GoalType.DRIVE;
+            goalSpeeds[0] = xSpeed;
+            goalSpeeds[1] = ySpeed;
+            goalSpeeds[2] = rotation;
+            goalFieldRelative = fieldRelative;
+            goalOpenLoop = isOpenLoop;
+            if (controlNotifier == null) {
+                applyDriveGoal(getYawRate());
+            }
         }
     }
 
+    /** Registers the closed loop part of the drive goal, null clears it. */
+    public void setDriveController(DriveController controller) {
+        synchronized (controlLock) {
+            driveController = controller;
+        }
+    }
+
+    /**
+     * @return Period a {@link DriveController} is evaluated at: (in Seconds), size profiled controllers with it
+     */
+    public double getControlPeriod() {
+        return controlNotifier != null ? 1.0 / Constants.SwerveConstants.controlFrequency : TimedRobot.kDefaultPeriod;
+    }
+
+    /**
+     * @return Measured Control Thread Rate: (in Hz), 0 while it is off
+     */
+    public double getControlFrequency() {
+        return measuredControlFrequency;
+    }
+
+    /* must hold controlLock */
+    private void applyDriveGoal(double yawRate) {
+        PoseSnapshot.Sample pose = getPose(controlSample);
+        driveGoal.resolve(goalSpeeds, goalFieldRelative, driveController, pose.x, pose.y, pose.theta, yawRate, speedMultiplier, allowedSpeed);
+        applyModuleStates(driveGoal.vx, driveGoal.vy, driveGoal.omega, Constants.SwerveConstants.maxSpeed, goalOpenLoop);
+    }
+
     public ChassisSpeeds getRobotRelativeSpeeds() {
         return Constants.SwerveConstants.swerveKinematics.toChassisSpeeds(getModuleStates());
     }
 
     public void driveRobotRelative(ChassisSpeeds speeds) {
-        SwerveModuleState[] states = Constants.SwerveConstants.swerveKinematics.toSwerveModuleStates(speeds);
-        SwerveDriveKinematics.desaturateWheelSpeeds(states, Constants.AutoConstants.kMaxSpeedMetersPerSecond);
-        setModuleStates(states);
+        setRobotRelativeGoal(speeds, null);
+    }
+
+    /** PathPlanner's output, its module accelerations are fed forward. */
+    public void driveRobotRelative(ChassisSpeeds speeds, DriveFeedforwards feedforwards) {
+        setRobotRelativeGoal(speeds, feedforwards.accelerationsMPSSq());
+    }
+
+    private void setRobotRelativeGoal(ChassisSpeeds speeds, double[] accelerations) {
+        synchronized (controlLock) {
+            goalType = GoalType.ROBOT_RELATIVE;
+            goalSpeeds[0] = speeds.vxMetersPerSecond;
+            goalSpeeds[1] = speeds.vyMetersPerSecond;
+            goalSpeeds[2] = speeds.omegaRadiansPerSecond;
+            for (int i = 0; i < goalAccelerations.length; i++) {
+                goalAccelerations[i] = accelerations != null ? accelerations[i] : 0.0;
+            }
+            if (controlNotifier == null) {
+                applyRobotRelativeGoal();
+            }
+        }
+    }
+
+    /* must hold controlLock */
+    private void applyRobotRelativeGoal() {
+        double dt = setpointPeriod();
+        setpointLimiter.calculate(goalSpeeds[0], goalSpeeds[1], goalSpeeds[2], Constants.AutoConstants.kMaxSpeedMetersPerSecond, dt);
+
+        for (SwerveModule mod : swerveModules) {
+            int i = mod.moduleNumber;
+            /* accelerations are along the path's module direction, flip them if the limiter reversed the wheel */
+            double direction = Math.cos(setpointLimiter.angles[i] - kinematics.angles[i]) >= 0 ? 1.0 : -1.0;
+            mod.setDesiredState(setpointLimiter.speeds[i], setpointLimiter.angles[i], goalAccelerations[i] * direction, false);
+        }
+    }
+
+    /** Control thread body, runs on the odometry thread's latest sample. */
+    private void runControlLoop() {
+        if (!controlPrioritySet) {
+            Threads.setCurrentThreadPriority(true, 1);
+            controlPrioritySet = true;
+        }
+
+        double now = Timer.getFPGATimestamp();
+        measuredControlFrequency = measuredControlFrequency * 0.9 + (1.0 / Math.max(now - lastControlTime, 1e-4)) * 0.1;
+        lastControlTime = now;
+
+        synchronized (controlLock) {
+            /* don't resume a stale goal when re-enabled */
+            if (DriverStation.isDisabled()) {
+                goalType = GoalType.NONE;
+                return;
+            }
+            if (goalType == GoalType.DRIVE) {
+                applyDriveGoal(odometryThread.getLastYawRate());
+            } else if (goalType == GoalType.ROBOT_RELATIVE) {
+                applyRobotRelativeGoal();
+            }
+        }
+    }
+
+    private void applyModuleStates(double vx, double vy, double omega, double maxSpeed, boolean isOpenLoop) {
+        double dt = setpointPeriod();
+        setpointLimiter.calculate(vx, vy, omega, maxSpeed, dt);
+        sendSetpoints(isOpenLoop);
     }
 
     public void setModuleStates(SwerveModuleState[] desiredStates) {
         SwerveDriveKinematics.desaturateWheelSpeeds(desiredStates, Constants.AutoConstants.kMaxSpeedMetersPerSecond);
+        synchronized (controlLock) {
+            goalType = GoalType.NONE;
+            for (SwerveModule mod : swerveModules) {
+                targetSpeeds[mod.moduleNumber] = desiredStates[mod.moduleNumber].speedMetersPerSecond;
+                targetAngles[mod.moduleNumber] = desiredStates[mod.moduleNumber].angle.getRadians();
+            }
+            double dt = setpointPeriod();
+            setpointLimiter.limit(targetSpeeds, targetAngles, dt);
+            sendSetpoints(false);
+        }
+    }
+
+    /**
+     * @return Time since the last setpoint: (in Seconds), the limiter is reseeded after a gap
+     */
+    private double setpointPeriod() {
+        double now = Timer.getFPGATimestamp();
+        double dt = now - lastSetpointTime;
+        lastSetpointTime = now;
+
+        if (dt > 0.1) {
+            for (SwerveModule mod : swerveModules) {
+                SwerveModuleState state = mod.getState();
+                setpointLimiter.reset(mod.moduleNumber, state.speedMetersPerSecond, state.angle.getRadians());
+            }
+            return TimedRobot.kDefaultPeriod;
+        }
+        return Math.max(dt, 0.001);
+    }
+
+    private void sendSetpoints(boolean isOpenLoop) {
         for (SwerveModule mod : swerveModules) {
-            mod.setDesiredState(desiredStates[mod.moduleNumber], false);
+            mod.setDesiredState(setpointLimiter.speeds[mod.moduleNumber], setpointLimiter.angles[mod.moduleNumber], isOpenLoop);
         }
     }
 
@@ -149,12 +482,52 @@ public class Swerve extends SubsystemBase {
         return positions;
     }
 
+    /** Lock free but allocates, hot paths use {@link #getPose(PoseSnapshot.Sample)}. */
     public Pose2d getPose() {
-        return poseEstimator.getEstimatedPosition();
+        return poseSnapshot.read(new PoseSnapshot.Sample()).toPose();
+    }
+
+    /**
+     * Allocation free version of {@link #getPose()}.
+     * @param into Sample owned by the calling thread
+     * @return into
+     */
+    public PoseSnapshot.Sample getPose(PoseSnapshot.Sample into) {
+        return poseSnapshot.read(into);
+    }
+
+    /**
+     * @return Snapshot of the pose and velocity, read it into a reused {@link PoseSnapshot.Sample} from any thread
+     */
+    public PoseSnapshot getPoseSnapshot() {
+        return poseSnapshot;
     }
 
     public void resetPose(Pose2d pose) {
-        poseEstimator.resetPosition(getGyroYaw(), getModulePositions(), pose);
+        /* reset against the odometry thread's last sample so its next update is a true delta */
+        synchronized (odometryLock) {
+            poseEstimator.resetPosition(odometryThread.getLastYaw(), odometryThread.getLastPositions(), pose);
+            odometryThread.publishSnapshot(Timer.getFPGATimestamp());
+            poseResets++;
+        }
+        poseHistory.clear();
+    }
+
+    /**
+     * @return Times the pose has been reset, including heading resets, safe from any thread
+     */
+    public int getPoseResetCount() {
+        return poseResets;
+    }
+
+    /**
+     * Pose as of an earlier time, for latency compensated consumers. Main loop only.
+     * @param timestamp FPGA Time: (in Seconds)
+     * @return Interpolated pose, clamped to the last 1.5 seconds, or the current pose before any history exists
+     */
+    public Pose2d getPoseAt(double timestamp) {
+        Pose2d pose = poseHistory.getPoseAt(timestamp);
+        return pose != null ? pose : getPose();
     }
 
     public Rotation2d getHeading() {
@@ -162,11 +535,13 @@ public class Swerve extends SubsystemBase {
     }
 
     public void setHeading(Rotation2d heading) {
-        poseEstimator.resetPosition(getGyroYaw(), getModulePositions(), new Pose2d(getPose().getTranslation(), heading));
+        synchronized (odometryLock) {
+            resetPose(new Pose2d(getPose().getTranslation(), heading));
+        }
     }
 
     public void zeroHeading() {
-        poseEstimator.resetPosition(getGyroYaw(), getModulePositions(), new Pose2d(getPose().getTranslation(), new Rotation2d()));
+        setHeading(new Rotation2d());
     }
 
     public void autoHeadingFix() {
@@ -177,8 +552,25 @@ public class Swerve extends SubsystemBase {
         }
     }
 
+    /**
+     * @return Gyro yaw extrapolated to now, as the odometry thread does
+     */
     public Rotation2d getGyroYaw() {
-        return Rotation2d.fromDegrees(gyro.getYaw().getValueAsDouble());
+        return Rotation2d.fromDegrees(Conversions.latencyCompensate(gyroYaw.getValueAsDouble(), gyroRate.getValueAsDouble(), gyroYaw.getTimestamp().getLatency()));
+    }
+
+    /**
+     * @return Counterclockwise yaw rate from the cached gyro signal: (in Radians per Second)
+     */
+    public double getYawRate() {
+        return Units.degreesToRadians(gyroRate.getValueAsDouble());
+    }
+
+    /** Refreshes every cached drivetrain signal at the start of the loop, under the control lock. */
+    public void refreshSignals() {
+        synchronized (controlLock) {
+            BaseStatusSignal.refreshAll(cachedSignals);
+        }
     }
 
     public void resetModulesToAbsolute() {
@@ -188,52 +580,204 @@ public class Swerve extends SubsystemBase {
     }
 
     public void setX() {
-        swerveModules[0].setDesiredState(new SwerveModuleState(0.0, Rotation2d.fromDegrees(45.0)), true);
-        swerveModules[1].setDesiredState(new SwerveModuleState(0.0, Rotation2d.fromDegrees(315.0)), true);
-        swerveModules[2].setDesiredState(new SwerveModuleState(0.0, Rotation2d.fromDegrees(315.0)), true);
-        swerveModules[3].setDesiredState(new SwerveModuleState(0.0, Rotation2d.fromDegrees(45.0)), true);
+        synchronized (controlLock) {
+            goalType = GoalType.NONE;
+            lastSetpointTime = 0;
+            swerveModules[0].setDesiredState(new SwerveModuleState(0.0, Rotation2d.fromDegrees(45.0)), true);
+            swerveModules[1].setDesiredState(new SwerveModuleState(0.0, Rotation2d.fromDegrees(315.0)), true);
+            swerveModules[2].setDesiredState(new SwerveModuleState(0.0, Rotation2d.fromDegrees(315.0)), true);
+            swerveModules[3].setDesiredState(new SwerveModuleState(0.0, Rotation2d.fromDegrees(45.0)), true);
+        }
     }
 
     @Override
     public void periodic() {
-        poseEstimator.update(getGyroYaw(), getModulePositions());
+        refreshSignals();
+        double remainingTime = remainingMatchTime();
+        for (SwerveModule mod : swerveModules) {
+            mod.updateThermal(TimedRobot.kDefaultPeriod, remainingTime);
+        }
+        updateDriveLimits();
         updateVisionMeasurement();
 
+        double now = Timer.getFPGATimestamp();
         Pose2d currentPose = getPose();
+        poseHistory.add(now, currentPose);
+        telemetry.update(now, currentPose);
+    }
 
-        field.setRobotPose(currentPose);
+    @Override
+    public void simulationPeriodic() {
+        if (swerveSim != null) {
+            swerveSim.update(TimedRobot.kDefaultPeriod);
+            simPosePublisher.set(swerveSim.getPose());
+        }
+    }
 
-        posePublisher.set(new Pose2d(currentPose.getX(), currentPose.getY(), new Rotation2d(currentPose.getRotation().getDegrees())));
-        SmartDashboard.putBoolean("Swerve/Fast Mode", speedMultiplier == 1.0);
-        SmartDashboard.putData("Swerve/Field", field);
+    public Command sysIdDriveQuasistatic(SysIdRoutine.Direction direction) {
+        return driveRoutine.quasistatic(direction).finallyDo(() -> driveFitter.publish("Swerve/SysId/Drive"));
     }
 
-    @SuppressWarnings("removal")
-    private void updateVisionMeasurement() {
-        LimelightHelpers.SetRobotOrientation("limelight-back", getGyroYaw().getDegrees(), 0, 0, 0, 0, 0);
-        LimelightHelpers.PoseEstimate mt2 = LimelightHelpers.getBotPoseEstimate_wpiBlue_MegaTag2("limelight-back");
+    public Command sysIdDriveDynamic(SysIdRoutine.Direction direction) {
+        return driveRoutine.dynamic(direction).finallyDo(() -> driveFitter.publish("Swerve/SysId/Drive"));
+    }
 
-        if (mt2 == null) {
-            DriverStation.reportWarning("Vision measurement returned null, check connection to back localization limelight.", false);
-            return;
+    public Command sysIdSteerQuasistatic(SysIdRoutine.Direction direction) {
+        return steerRoutine.quasistatic(direction).finallyDo(() -> steerFitter.publish("Swerve/SysId/Steer"));
+    }
+
+    public Command sysIdSteerDynamic(SysIdRoutine.Direction direction) {
+        return steerRoutine.dynamic(direction).finallyDo(() -> steerFitter.publish("Swerve/SysId/Steer"));
+    }
+
+    private void runDriveCharacterization(Voltage volts) {
+        driveCharacterizationVolts = volts.in(Volts);
+        synchronized (controlLock) {
+            goalType = GoalType.NONE;
+            for (SwerveModule mod : swerveModules) {
+                mod.runDriveCharacterization(driveCharacterizationVolts);
+            }
         }
+    }
 
-        boolean doRejectUpdate = false;
+    private void runSteerCharacterization(Voltage volts) {
+        steerCharacterizationVolts = volts.in(Volts);
+        synchronized (controlLock) {
+            goalType = GoalType.NONE;
+            for (SwerveModule mod : swerveModules) {
+                mod.runSteerCharacterization(steerCharacterizationVolts);
+            }
+        }
+    }
 
-        if (Math.abs(gyro.getRate()) > 720) {
-            doRejectUpdate = true;
+    /* reads the cached signals, periodic has already refreshed them this loop */
+    private void logDriveCharacterization(SysIdRoutineLog log) {
+        double distance = 0, velocity = 0;
+        for (SwerveModule mod : swerveModules) {
+            log.motor("drive-" + mod.moduleNumber)
+                .voltage(sysIdVoltage.mut_replace(driveCharacterizationVolts, Volts))
+                .linearPosition(sysIdDistance.mut_replace(mod.getMeasuredDistance(), Meters))
+                .linearVelocity(sysIdLinearVelocity.mut_replace(mod.getMeasuredSpeed(), MetersPerSecond));
+            distance += mod.getMeasuredDistance() / swerveModules.length;
+            velocity += mod.getMeasuredSpeed() / swerveModules.length;
         }
+        driveFitter.addSample(Timer.getFPGATimestamp(), driveCharacterizationVolts, distance, velocity);
+    }
 
-        if (mt2.tagCount == 0) {
-            doRejectUpdate = true;
+    private void logSteerCharacterization(SysIdRoutineLog log) {
+        double angle = 0, velocity = 0;
+        for (SwerveModule mod : swerveModules) {
+            double rotations = Units.radiansToRotations(mod.getMeasuredAngle());
+            log.motor("steer-" + mod.moduleNumber)
+                .voltage(sysIdVoltage.mut_replace(steerCharacterizationVolts, Volts))
+                .angularPosition(sysIdAngle.mut_replace(rotations, Rotations))
+                .angularVelocity(sysIdAngularVelocity.mut_replace(mod.getMeasuredAngularVelocity(), RotationsPerSecond));
+            angle += rotations / swerveModules.length;
+            velocity += mod.getMeasuredAngularVelocity() / swerveModules.length;
         }
+        steerFitter.addSample(Timer.getFPGATimestamp(), steerCharacterizationVolts, angle, velocity);
+    }
 
-        if (!doRejectUpdate) {
-            poseEstimator.addVisionMeasurement(
-                mt2.pose,
-                mt2.timestampSeconds
-            );
+    /**
+     * @return Drive Acceleration the derated current limits still allow: (in Meters per Second Squared)
+     */
+    public double getThermalAcceleration() {
+        return thermalAcceleration;
+    }
+
+    /* off the field there is no match clock, plan for a whole match */
+    private static double remainingMatchTime() {
+        double matchTime = DriverStation.getMatchTime();
+        if (!DriverStation.isFMSAttached() || matchTime < 0) {
+            return Constants.SwerveConstants.matchLength;
+        }
+        return DriverStation.isAutonomous() ? matchTime + Constants.SwerveConstants.teleopLength : matchTime;
+    }
+
+    /** Acceleration and speed limits from the live center of mass, tilt and thermal derating. */
+    private void updateDriveLimits() {
+        double height = Math.max(centerOfMassHeight.getAsDouble(), 0.05);
+        double support = Constants.CenterOfMassConstants.SUPPORT_HALF_WIDTH - Math.abs(centerOfMassOffset.getAsDouble());
+        double tilt = Units.degreesToRadians(Math.max(Math.abs(gyroPitch.getValueAsDouble()), Math.abs(gyroRoll.getValueAsDouble())));
+
+        double tipAcceleration = 9.81 * (support * Math.cos(tilt) - height * Math.sin(tilt)) / (height * Math.cos(tilt) + support * Math.sin(tilt));
+        /* acceleration scales with current, so the most derated module sets the thermal limit */
+        double thermalScale = 1.0;
+        for (SwerveModule mod : swerveModules) {
+            thermalScale = Math.min(thermalScale, mod.getDriveCurrentLimit() / Constants.SwerveConstants.driveStatorCurrentLimit);
+        }
+        thermalAcceleration = Constants.SwerveConstants.maxModuleAcceleration * thermalScale;
+
+        allowedAcceleration = MathUtil.clamp(
+            Math.min(tipAcceleration * Constants.CenterOfMassConstants.TIP_SAFETY_FACTOR, thermalAcceleration),
+            Constants.CenterOfMassConstants.MIN_ACCELERATION,
+            Constants.SwerveConstants.maxModuleAcceleration
+        );
+        allowedSpeed = Math.min(
+            Math.sqrt(2 * allowedAcceleration * Constants.CenterOfMassConstants.STOPPING_DISTANCE),
+            Constants.SwerveConstants.maxSpeed
+        );
+        synchronized (controlLock) {
+            setpointLimiter.setMaxAcceleration(allowedAcceleration);
         }
     }
 
+    /**
+     * Fuses every MegaTag2 frame that arrived since the last loop, oldest first, see {@link VisionIngestor}.
+     */
+    private void updateVisionMeasurement() {
+        double yaw = getGyroYaw().getDegrees();
+        for (int i = 0; i < visionIngestor.getCameraCount(); i++) {
+            LimelightCamera camera = visionIngestor.getCamera(i);
+            camera.setRobotOrientation(yaw, 0);
+            if (!camera.isConnected()) {
+                DriverStation.reportWarning("No vision measurements from " + camera.getName() + ", check its connection.", false);
+            }
+        }
+
+        int frames = visionIngestor.poll();
+        /* the whole batch is rejected while spinning fast, MegaTag2 relies on the yaw we sent */
+        if (frames == 0 || Math.abs(gyroRate.getValueAsDouble()) > 720) {
+            return;
+        }
+
+        /* odometry just had samples thrown out, lean on vision until it settles */
+        double xyStdDev = slipDetector.flaggedWithin(Timer.getFPGATimestamp(), SLIP_VISION_WINDOW)
+            ? Constants.VisionConstants.SLIP_XY_STD_DEV
+            : Constants.VisionConstants.XY_STD_DEV;
+        Pose2d lastAccepted = null;
+        synchronized (odometryLock) {
+            for (int i = 0; i < frames; i++) {
+                LimelightHelpers.MutablePoseEstimate mt2 = visionIngestor.getFrame(i);
+                if (mt2.tagCount == 0) {
+                    continue;
+                }
+                lastAccepted = mt2.toPose2d();
+                poseEstimator.addVisionMeasurement(
+                    lastAccepted,
+                    mt2.timestampSeconds,
+                    VecBuilder.fill(xyStdDev, xyStdDev, Constants.VisionConstants.HEADING_STD_DEV)
+                );
+            }
+            if (lastAccepted != null) {
+                odometryThread.publishSnapshot(Timer.getFPGATimestamp());
+            }
+        }
+        if (lastAccepted != null) {
+            telemetry.publishVisionPose(lastAccepted);
+        }
+    }
+
+    public int getVisionFramesTaken() {
+        return visionIngestor.getFramesTaken();
+    }
+
+    public int getVisionDuplicatesDropped() {
+        return visionIngestor.getDuplicatesDropped();
+    }
+
+    public int getVisionTagsVisible() {
+        return visionIngestor.getTagsVisible();
+    }
+
 }
@@ -1,6 +1,13 @@
 package frc.robot.subsystems.intake;
 
+import static edu.wpi.first.units.Units.Rotations;
+import static edu.wpi.first.units.Units.RotationsPerSecond;
+import static edu.wpi.first.units.Units.Second;
+import static edu.wpi.first.units.Units.Volts;
+
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.DutyCycleOut;
+import com.ctre.phoenix6.controls.VoltageOut;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.signals.InvertedValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
@@ -8,8 +15,20 @@ import com.reduxrobotics.sensors.canandmag.Canandmag;
 import com.reduxrobotics.sensors.canandmag.CanandmagSettings;
 
 import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.units.measure.MutAngle;
+import edu.wpi.first.units.measure.MutAngularVelocity;
+import edu.wpi.first.units.measure.MutVoltage;
+import edu.wpi.first.units.measure.Voltage;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
+import edu.wpi.first.wpilibj.sysid.SysIdRoutineLog;
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.Commands;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import edu.wpi.first.wpilibj2.command.sysid.SysIdRoutine;
+import frc.lib.ControlOutput;
+import frc.lib.SysIdFitter;
 import frc.robot.Constants;;
 
 public class IntakePivot extends SubsystemBase {
@@ -19,11 +38,24 @@ public class IntakePivot extends SubsystemBase {
   private Canandmag canandmag;
   private CanandmagSettings canandmagSettings;
   private PIDController controller;
+  private ControlOutput motorOutput;
+  private DutyCycleOut dutyCycle = new DutyCycleOut(0).withUpdateFreqHz(ControlOutput.UPDATE_FREQUENCY);
+
+  // sysid, the pid loop is paused while a test runs
+  private SysIdRoutine sysIdRoutine;
+  private SysIdFitter sysIdFitter = new SysIdFitter(SysIdFitter.Model.ARM);
+  private VoltageOut sysIdRequest = new VoltageOut(0).withUpdateFreqHz(ControlOutput.UPDATE_FREQUENCY);
+  private MutVoltage sysIdVoltage = Volts.mutable(0);
+  private MutAngle sysIdPosition = Rotations.mutable(0);
+  private MutAngularVelocity sysIdVelocity = RotationsPerSecond.mutable(0);
+  private double sysIdVolts = 0;
+  private boolean characterizing = false;
 
   public IntakePivot() {
-    motor = new TalonFX(Constants.ID.ARM_TALONFX_ID);
+    motor = new TalonFX(Constants.ID.INTAKE_TALONFX_ID);
+    motorOutput = new ControlOutput("IntakePivot", motor, motor::setControl);
     config = new TalonFXConfiguration();
-    canandmag = new Canandmag(Constants.ID.ARM_ENCODER_ID);
+    canandmag = new Canandmag(Constants.ID.INTAKE_ENCODER_ID);
     canandmagSettings = new CanandmagSettings();
     canandmagSettings.setInvertDirection(true);
 
@@ -42,6 +74,11 @@ public class IntakePivot extends SubsystemBase {
     motor.setNeutralMode(NeutralModeValue.Brake);
     canandmag.setSettings(canandmagSettings);
     canandmag.setPosition(0);
+
+    // slow ramp and small step, the mechanism only has a couple of rotations of travel
+    sysIdRoutine = new SysIdRoutine(
+      new SysIdRoutine.Config(Volts.of(0.5).per(Second), Volts.of(2), null),
+      new SysIdRoutine.Mechanism(this::runCharacterization, this::logCharacterization, this));
   }
 
   public void goTowardsDesiredPosition() {
@@ -61,7 +98,7 @@ public class IntakePivot extends SubsystemBase {
       desiredSpeed = 0;
     }
 
-    motor.set(desiredSpeed);
+    motorOutput.set(dutyCycle.withOutput(desiredSpeed), desiredSpeed);
   }
 
   public boolean atSetpoint() {
@@ -72,9 +109,64 @@ public class IntakePivot extends SubsystemBase {
     controller.setSetpoint(desiredPosition);
   }
 
+  // radians from horizontal
+  public double getAngle() {
+    return (canandmag.getPosition() - Constants.IntakePivotConstants.HORIZONTAL_POSITION) / Constants.IntakePivotConstants.ENCODER_RATIO * 2 * Math.PI;
+  }
+
+  public Command sysIdQuasistatic(SysIdRoutine.Direction direction) {
+    return characterize(sysIdRoutine.quasistatic(direction), direction);
+  }
+
+  public Command sysIdDynamic(SysIdRoutine.Direction direction) {
+    return characterize(sysIdRoutine.dynamic(direction), direction);
+  }
+
+  // stop at the soft limits, then hold wherever the test left the mechanism
+  private Command characterize(Command test, SysIdRoutine.Direction direction) {
+    // the kG fit is meaningless without the level position and the encoder ratio
+    if (Double.isNaN(Constants.IntakePivotConstants.HORIZONTAL_POSITION) || Double.isNaN(Constants.IntakePivotConstants.ENCODER_RATIO)) {
+      return Commands.runOnce(() -> DriverStation.reportWarning(
+        "IntakePivot SysId needs HORIZONTAL_POSITION and ENCODER_RATIO measured first.", false));
+    }
+    return test
+      .until(() -> direction == SysIdRoutine.Direction.kForward
+        ? getPosition() >= Constants.IntakePivotConstants.FORWARD_LIMIT
+        : getPosition() <= Constants.IntakePivotConstants.REVERSE_LIMIT)
+      .beforeStarting(() -> characterizing = true)
+      .finallyDo(() -> {
+        characterizing = false;
+        controller.reset();
+        controller.setSetpoint(getPosition());
+        sysIdFitter.publish("IntakePivot/SysId");
+      });
+  }
+
+  private void runCharacterization(Voltage volts) {
+    sysIdVolts = volts.in(Volts);
+    motorOutput.set(sysIdRequest.withOutput(sysIdVolts), sysIdVolts);
+  }
+
+  // pivot rotations from horizontal so the fitter can apply kG cos(angle), gains come out per pivot rotation
+  private void logCharacterization(SysIdRoutineLog log) {
+    double position = getAngle() / (2 * Math.PI);
+    double velocity = canandmag.getVelocity() / Constants.IntakePivotConstants.ENCODER_RATIO;
+    log.motor("intakepivot")
+      .voltage(sysIdVoltage.mut_replace(sysIdVolts, Volts))
+      .angularPosition(sysIdPosition.mut_replace(position, Rotations))
+      .angularVelocity(sysIdVelocity.mut_replace(velocity, RotationsPerSecond));
+    sysIdFitter.addSample(Timer.getFPGATimestamp(), sysIdVolts, position, velocity);
+  }
+
+  public double getPosition() {
+    return canandmag.getPosition();
+  }
+
   @Override
   public void periodic() {
-    goTowardsDesiredPosition();
+    if (!characterizing) {
+      goTowardsDesiredPosition();
+    }
     SmartDashboard.putBoolean("IntakePivot/at Setpoint", controller.atSetpoint());
     SmartDashboard.putNumber("IntakePivot/Setpoint", controller.getSetpoint());
     SmartDashboard.putNumber("IntakePivot/Forward Limit", Constants.IntakePivotConstants.FORWARD_LIMIT);
@@ -5,6 +5,7 @@
 package frc.robot.subsystems.intake;
 
 import com.ctre.phoenix6.configs.TalonFXConfiguration;
+import com.ctre.phoenix6.controls.DutyCycleOut;
 import com.ctre.phoenix6.configs.TalonFXSConfiguration;
 import com.ctre.phoenix6.hardware.TalonFX;
 import com.ctre.phoenix6.hardware.TalonFXS;
@@ -12,6 +13,7 @@ import com.ctre.phoenix6.signals.MotorArrangementValue;
 import com.ctre.phoenix6.signals.NeutralModeValue;
 
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.lib.ControlOutput;
 import frc.robot.Constants;
 
 public class IntakeRollers extends SubsystemBase {
@@ -22,12 +24,24 @@ public class IntakeRollers extends SubsystemBase {
   private TalonFX indexerRoller;
   private TalonFXConfiguration fxConfig;
 
+  private ControlOutput smallRollerOutput;
+  private ControlOutput bigRollerOutput;
+  private ControlOutput indexerRollerOutput;
+  // one request per device, ControlOutput compares requests by identity
+  private DutyCycleOut smallRollerDutyCycle = new DutyCycleOut(0).withUpdateFreqHz(ControlOutput.UPDATE_FREQUENCY);
+  private DutyCycleOut bigRollerDutyCycle = new DutyCycleOut(0).withUpdateFreqHz(ControlOutput.UPDATE_FREQUENCY);
+  private DutyCycleOut indexerRollerDutyCycle = new DutyCycleOut(0).withUpdateFreqHz(ControlOutput.UPDATE_FREQUENCY);
+
   public IntakeRollers() {
 
     smallRoller = new TalonFXS(Constants.ID.SMALL_ROLLER);
     bigRoller = new TalonFX(Constants.ID.BIG_ROLLER);
     indexerRoller = new TalonFX(Constants.ID.INDEXER_MOTOR);
 
+    smallRollerOutput = new ControlOutput("Intake Small Roller", smallRoller, smallRoller::setControl);
+    bigRollerOutput = new ControlOutput("Intake Big Roller", bigRoller, bigRoller::setControl);
+    indexerRollerOutput = new ControlOutput("Intake Indexer", indexerRoller, indexerRoller::setControl);
+
     fxsConfig = new TalonFXSConfiguration();
 
     fxsConfig.MotorOutput.NeutralMode = NeutralModeValue.Coast;
@@ -49,33 +63,33 @@ public class IntakeRollers extends SubsystemBase {
   }
 
   public void setBigRollerSpeed(double DesiredSpeed) {
-    bigRoller.set(-DesiredSpeed);
+    bigRollerOutput.set(bigRollerDutyCycle.withOutput(-DesiredSpeed), -DesiredSpeed);
   }
 
   public void setSmallRollerSpeed(double desiredSpeed) {
-    smallRoller.set(desiredSpeed);
+    smallRollerOutput.set(smallRollerDutyCycle.withOutput(desiredSpeed), desiredSpeed);
   }
 
   public void setIndexerSpeed(double desiredSpeed) {
-    indexerRoller.set(desiredSpeed);
+    indexerRollerOutput.set(indexerRollerDutyCycle.withOutput(desiredSpeed), desiredSpeed);
   }
 
   public void stopAllMotors() {
-    bigRoller.stopMotor();
-    smallRoller.stopMotor();
-    indexerRoller.stopMotor();
+    bigRollerOutput.stop();
+    smallRollerOutput.stop();
+    indexerRollerOutput.stop();
   }
 
   public void stopBigRoller() {
-    bigRoller.stopMotor();
+    bigRollerOutput.stop();
   }
 
   public void stopSmallRoller() {
-    smallRoller.stopMotor();
+    smallRollerOutput.stop();
   }
 
   public void stopIndexerRoller() {
-    indexerRoller.stopMotor();
+    indexerRollerOutput.stop();
   }
  
   @Override
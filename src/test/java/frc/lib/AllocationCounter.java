@@ -0,0 +1,26 @@
+package frc.lib;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Bytes allocated by the calling thread, for tests that check a path doesn't allocate. Run the path
+ * enough times first for the JIT to compile it, the interpreter allocates where compiled code won't.
+ */
+public final class AllocationCounter {
+
+    private static final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    static {
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    private AllocationCounter() {}
+
+    /**
+     * @return Bytes allocated by the calling thread so far
+     */
+    public static long allocatedBytes() {
+        return threads.getCurrentThreadAllocatedBytes();
+    }
+}
@@ -0,0 +1,173 @@
+package frc.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the fill* parsers against the allocating ones they replace, and that they don't allocate.
+ */
+class LimelightHelpersTest {
+
+    private static final double EPSILON = 1e-12;
+    private static final int CAPACITY = 8;
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    /* NetworkTables timestamp, Microseconds */
+    private static final long TIMESTAMP = 1_021_497_900L;
+
+    /* [x, y, z, roll, pitch, yaw, latency, tagCount, tagSpan, avgDist, avgArea] then 7 values per tag */
+    private static final double[] BOTPOSE = {
+        3.63, 4.0, 0.0, 0.0, 0.0, 179.3, 30.6, 2, 0.94, 1.71, 0.0116,
+        18, -11.23, 8.51, 0.0141, 1.52, 1.61, 0.08,
+        17, 12.07, 5.96, 0.0092, 1.99, 2.06, 0.21
+    };
+
+    /* 7 values per tag */
+    private static final double[] RAW_FIDUCIALS = {
+        18, -11.23, 8.51, 0.0141, 1.52, 1.61, 0.08,
+        17, 12.07, 5.96, 0.0092, 1.99, 2.06, 0.21,
+        22, 1.5, -2.25, 0.0031, 3.4, 3.55, 0.6
+    };
+
+    /* classId, txnc, tync, ta, then 4 x, y corners */
+    private static final double[] RAW_DETECTIONS = {
+        1, 4.12, -6.4, 0.0213, 312, 201, 388, 201, 388, 260, 312, 260,
+        0, -8.7, 2.1, 0.0402, 90, 150, 170, 150, 170, 230, 90, 230
+    };
+
+    @Test
+    void fillPoseEstimateMatchesToPoseEstimate() {
+        LimelightHelpers.PoseEstimate expected = LimelightHelpers.toPoseEstimate(BOTPOSE, TIMESTAMP, true);
+        LimelightHelpers.MutablePoseEstimate actual = LimelightHelpers.fillPoseEstimate(
+            new LimelightHelpers.MutablePoseEstimate(CAPACITY), BOTPOSE, TIMESTAMP, true);
+
+        assertTrue(actual.valid);
+        assertEquals(expected.isMegaTag2, actual.isMegaTag2);
+        assertEquals(expected.pose.getX(), actual.x, EPSILON);
+        assertEquals(expected.pose.getY(), actual.y, EPSILON);
+        assertEquals(expected.pose.getRotation().getRadians(), actual.yaw, EPSILON);
+        assertEquals(expected.pose, actual.toPose2d());
+        assertEquals(expected.timestampSeconds, actual.timestampSeconds, EPSILON);
+        assertEquals(expected.latency, actual.latency, EPSILON);
+        assertEquals(expected.tagCount, actual.tagCount);
+        assertEquals(expected.tagSpan, actual.tagSpan, EPSILON);
+        assertEquals(expected.avgTagDist, actual.avgTagDist, EPSILON);
+        assertEquals(expected.avgTagArea, actual.avgTagArea, EPSILON);
+        assertFiducialsEqual(expected.rawFiducials, actual.fiducials);
+    }
+
+    @Test
+    void fillPoseEstimateHandlesMalformedArrays() {
+        LimelightHelpers.MutablePoseEstimate estimate = new LimelightHelpers.MutablePoseEstimate(CAPACITY);
+        LimelightHelpers.fillPoseEstimate(estimate, BOTPOSE, TIMESTAMP, true);
+
+        assertNull(LimelightHelpers.toPoseEstimate(new double[0], TIMESTAMP, true));
+        LimelightHelpers.fillPoseEstimate(estimate, new double[0], TIMESTAMP, true);
+        assertFalse(estimate.valid);
+        assertEquals(0, estimate.tagCount);
+        assertEquals(0, estimate.fiducials.count);
+
+        /* tag count doesn't match the length, the pose is kept and the fiducials dropped */
+        double[] truncated = new double[BOTPOSE.length - 3];
+        System.arraycopy(BOTPOSE, 0, truncated, 0, truncated.length);
+        LimelightHelpers.fillPoseEstimate(estimate, truncated, TIMESTAMP, true);
+        assertTrue(estimate.valid);
+        assertEquals(2, estimate.tagCount);
+        assertEquals(0, estimate.fiducials.count);
+    }
+
+    @Test
+    void fillRawFiducialsMatchesToRawFiducials() {
+        LimelightHelpers.RawFiducial[] expected = LimelightHelpers.toRawFiducials(RAW_FIDUCIALS);
+        LimelightHelpers.FiducialBuffer actual = LimelightHelpers.fillRawFiducials(
+            new LimelightHelpers.FiducialBuffer(CAPACITY), RAW_FIDUCIALS);
+        assertFiducialsEqual(expected, actual);
+
+        /* past capacity the extra tags are dropped, a malformed array empties the buffer */
+        assertEquals(2, LimelightHelpers.fillRawFiducials(new LimelightHelpers.FiducialBuffer(2), RAW_FIDUCIALS).count);
+        assertEquals(0, LimelightHelpers.fillRawFiducials(actual, new double[] {1, 2, 3}).count);
+    }
+
+    @Test
+    void fillRawDetectionsMatchesToRawDetections() {
+        LimelightHelpers.RawDetection[] expected = LimelightHelpers.toRawDetections(RAW_DETECTIONS);
+        LimelightHelpers.DetectionBuffer actual = LimelightHelpers.fillRawDetections(
+            new LimelightHelpers.DetectionBuffer(CAPACITY), RAW_DETECTIONS);
+
+        assertEquals(expected.length, actual.count);
+        for (int i = 0; i < actual.count; i++) {
+            LimelightHelpers.RawDetection detection = expected[i];
+            assertEquals(detection.classId, actual.classIds[i]);
+            assertEquals(detection.txnc, actual.txnc[i], EPSILON);
+            assertEquals(detection.tync, actual.tync[i], EPSILON);
+            assertEquals(detection.ta, actual.ta[i], EPSILON);
+            double[] corners = {
+                detection.corner0_X, detection.corner0_Y, detection.corner1_X, detection.corner1_Y,
+                detection.corner2_X, detection.corner2_Y, detection.corner3_X, detection.corner3_Y
+            };
+            for (int c = 0; c < 8; c++) {
+                assertEquals(corners[c], actual.corners[i * 8 + c], EPSILON);
+            }
+        }
+        assertEquals(0, LimelightHelpers.fillRawDetections(actual, new double[] {1, 2, 3}).count);
+    }
+
+    /** Prints bytes per frame for both paths, the fill* path must not allocate. */
+    @Test
+    void fillParsersDoNotAllocate() {
+        LimelightHelpers.MutablePoseEstimate estimate = new LimelightHelpers.MutablePoseEstimate(CAPACITY);
+        LimelightHelpers.FiducialBuffer fiducials = new LimelightHelpers.FiducialBuffer(CAPACITY);
+        LimelightHelpers.DetectionBuffer detections = new LimelightHelpers.DetectionBuffer(CAPACITY);
+        for (int i = 0; i < WARMUP; i++) {
+            fill(estimate, fiducials, detections, i);
+            allocate(i);
+        }
+
+        long fillBytes = AllocationCounter.allocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            fill(estimate, fiducials, detections, i);
+        }
+        fillBytes = AllocationCounter.allocatedBytes() - fillBytes;
+
+        long allocatingBytes = AllocationCounter.allocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            allocate(i);
+        }
+        allocatingBytes = AllocationCounter.allocatedBytes() - allocatingBytes;
+
+        System.out.printf("fill*: %d B per frame, to*: %d B per frame%n", fillBytes / ITERATIONS, allocatingBytes / ITERATIONS);
+        assertEquals(0, fillBytes);
+    }
+
+    private static void fill(LimelightHelpers.MutablePoseEstimate estimate, LimelightHelpers.FiducialBuffer fiducials,
+            LimelightHelpers.DetectionBuffer detections, int i) {
+        LimelightHelpers.fillPoseEstimate(estimate, BOTPOSE, TIMESTAMP + i, true);
+        LimelightHelpers.fillRawFiducials(fiducials, RAW_FIDUCIALS);
+        LimelightHelpers.fillRawDetections(detections, RAW_DETECTIONS);
+    }
+
+    private static void allocate(int i) {
+        LimelightHelpers.toPoseEstimate(BOTPOSE, TIMESTAMP + i, true);
+        LimelightHelpers.toRawFiducials(RAW_FIDUCIALS);
+        LimelightHelpers.toRawDetections(RAW_DETECTIONS);
+    }
+
+    private static void assertFiducialsEqual(LimelightHelpers.RawFiducial[] expected, LimelightHelpers.FiducialBuffer actual) {
+        assertEquals(expected.length, actual.count);
+        for (int i = 0; i < actual.count; i++) {
+            LimelightHelpers.RawFiducial fiducial = expected[i];
+            assertEquals(fiducial.id, actual.ids[i]);
+            assertEquals(fiducial.txnc, actual.txnc[i], EPSILON);
+            assertEquals(fiducial.tync, actual.tync[i], EPSILON);
+            assertEquals(fiducial.ta, actual.ta[i], EPSILON);
+            assertEquals(fiducial.distToCamera, actual.distToCamera[i], EPSILON);
+            assertEquals(fiducial.distToRobot, actual.distToRobot[i], EPSILON);
+            assertEquals(fiducial.ambiguity, actual.ambiguity[i], EPSILON);
+        }
+    }
+}
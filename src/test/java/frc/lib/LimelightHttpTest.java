@@ -0,0 +1,171 @@
+package frc.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Runs LimelightHttp against a local server standing in for a camera. /ok answers 200, /missing
+ * 404 and /slow holds the request until the test releases it.
+ */
+class LimelightHttpTest {
+
+    /** Seconds, well past the read timeout */
+    private static final long WAIT = 5;
+
+    private static HttpServer server;
+    private static ExecutorService serverThreads;
+    private static String base;
+    private static volatile CountDownLatch release;
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/ok", exchange -> respond(exchange, 200));
+        server.createContext("/missing", exchange -> respond(exchange, 404));
+        server.createContext("/slow", exchange -> {
+            try {
+                release.await(WAIT * 2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200);
+        });
+        /* one thread per held request, the default runs them one at a time */
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.start();
+        base = "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @BeforeEach
+    void holdSlowRequests() {
+        release = new CountDownLatch(1);
+    }
+
+    @AfterEach
+    void releaseSlowRequests() {
+        release.countDown();
+    }
+
+    private static void respond(HttpExchange exchange, int status) throws IOException {
+        try {
+            exchange.sendResponseHeaders(status, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static URL url(String path) throws IOException {
+        return new URL(base + path);
+    }
+
+    @Test
+    void completesWithTheStatus() throws Exception {
+        int failed = LimelightHttp.getRequestsFailed();
+        assertTrue(LimelightHttp.get(url("/ok"), null).get(WAIT, TimeUnit.SECONDS));
+        assertTrue(LimelightHttp.get(url("/ok"), "snapshot").get(WAIT, TimeUnit.SECONDS));
+        assertFalse(LimelightHttp.get(url("/missing"), null).get(WAIT, TimeUnit.SECONDS));
+        assertEquals(failed + 1, LimelightHttp.getRequestsFailed());
+    }
+
+    @Test
+    void timesOutAStalledCamera() throws Exception {
+        int failed = LimelightHttp.getRequestsFailed();
+        long start = System.nanoTime();
+        assertFalse(LimelightHttp.get(url("/slow"), null).get(WAIT, TimeUnit.SECONDS));
+        double millis = (System.nanoTime() - start) * 1e-6;
+
+        assertTrue(millis >= LimelightHttp.READ_TIMEOUT * 0.9, "gave up after " + millis + " ms");
+        assertEquals(failed + 1, LimelightHttp.getRequestsFailed());
+    }
+
+    @Test
+    void coalescesRepeatedRequests() throws Exception {
+        int coalesced = LimelightHttp.getRequestsCoalesced();
+        CompletableFuture<Boolean> first = LimelightHttp.get(url("/slow"), "a");
+        CompletableFuture<Boolean> repeat = LimelightHttp.get(url("/slow"), "a");
+        CompletableFuture<Boolean> otherName = LimelightHttp.get(url("/slow"), "b");
+
+        assertSame(first, repeat);
+        assertNotSame(first, otherName);
+        assertEquals(coalesced + 1, LimelightHttp.getRequestsCoalesced());
+
+        release.countDown();
+        assertTrue(first.get(WAIT, TimeUnit.SECONDS));
+        assertTrue(otherName.get(WAIT, TimeUnit.SECONDS));
+
+        /* once it finished the same request is sent again */
+        CompletableFuture<Boolean> again = LimelightHttp.get(url("/slow"), "a");
+        assertNotSame(first, again);
+        assertTrue(again.get(WAIT, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void rejectsPastTheQueue() throws Exception {
+        int rejected = LimelightHttp.getRequestsRejected();
+        int slots = LimelightHttp.THREADS + LimelightHttp.QUEUE_DEPTH;
+        List<CompletableFuture<Boolean>> futures = new ArrayList<>();
+        for (int i = 0; i < slots + 2; i++) {
+            futures.add(LimelightHttp.get(url("/slow?n=" + i), null));
+        }
+
+        /* at most every slot is taken, the rest fail without waiting */
+        int rejectedNow = LimelightHttp.getRequestsRejected() - rejected;
+        assertTrue(rejectedNow >= 2, rejectedNow + " rejected");
+        int failedFast = 0;
+        for (CompletableFuture<Boolean> future : futures) {
+            if (future.isDone()) {
+                assertFalse(future.join());
+                failedFast++;
+            }
+        }
+        assertEquals(rejectedNow, failedFast);
+
+        /* the rejected key isn't left pending */
+        release.countDown();
+        for (CompletableFuture<Boolean> future : futures) {
+            future.get(WAIT, TimeUnit.SECONDS);
+        }
+        assertTrue(LimelightHttp.get(url("/slow?n=" + (slots + 1)), null).get(WAIT, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void completesWhenTheRequestThrows() throws Exception {
+        /* a file URL isn't an HttpURLConnection, send throws a ClassCastException */
+        URL file = new URL("file:/limelight-http-test");
+        CompletableFuture<Boolean> future = LimelightHttp.get(file, null);
+        assertFalse(future.get(WAIT, TimeUnit.SECONDS));
+        assertFalse(future.isCompletedExceptionally());
+        assertNotSame(future, LimelightHttp.get(file, null));
+    }
+}
@@ -0,0 +1,154 @@
+package frc.lib;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Checks the streaming parser against the databind path LimelightHelpers.getLatestResults uses, on
+ * a dump in the Limelight OS 2025 format with two tags and one detection.
+ */
+class LimelightResultsReaderTest {
+
+    private static final double EPSILON = 1e-9;
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 50_000;
+
+    private static String sample;
+    private static ObjectMapper mapper;
+
+    @BeforeAll
+    static void load() throws IOException {
+        try (InputStream in = LimelightResultsReaderTest.class.getResourceAsStream("limelight-results.json")) {
+            sample = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+
+    @Test
+    void matchesDatabind() throws IOException {
+        LimelightHelpers.LimelightResults expected = mapper.readValue(sample, LimelightHelpers.LimelightResults.class);
+        LimelightResultsReader.Results actual = new LimelightResultsReader.Results(LimelightCamera.RESULTS_CAPACITY);
+        assertTrue(LimelightResultsReader.parse(sample, actual, true, true));
+
+        assertEquals((int) expected.pipelineID, actual.pipelineID);
+        assertEquals(expected.latency_pipeline, actual.latencyPipeline, EPSILON);
+        assertEquals(expected.latency_capture, actual.latencyCapture, EPSILON);
+        assertEquals(expected.timestamp_LIMELIGHT_publish, actual.timestampLimelight, EPSILON);
+        assertEquals(expected.timestamp_RIOFPGA_capture, actual.timestampRio, EPSILON);
+        assertEquals(expected.valid, actual.valid);
+        assertArrayEquals(expected.botpose_wpiblue, actual.botposeWpiBlue, EPSILON);
+        assertEquals((int) expected.botpose_tagcount, actual.tagCount);
+        assertEquals(expected.botpose_span, actual.tagSpan, EPSILON);
+        assertEquals(expected.botpose_avgdist, actual.avgTagDist, EPSILON);
+        assertEquals(expected.botpose_avgarea, actual.avgTagArea, EPSILON);
+
+        assertEquals(expected.targets_Fiducials.length, actual.fiducials.count);
+        for (int i = 0; i < actual.fiducials.count; i++) {
+            LimelightHelpers.LimelightTarget_Fiducial fiducial = expected.targets_Fiducials[i];
+            assertEquals((int) fiducial.fiducialID, actual.fiducials.ids[i]);
+            assertEquals(fiducial.tx_nocrosshair, actual.fiducials.txnc[i], EPSILON);
+            assertEquals(fiducial.ty_nocrosshair, actual.fiducials.tync[i], EPSILON);
+            assertEquals(fiducial.ta, actual.fiducials.ta[i], EPSILON);
+        }
+
+        assertEquals(expected.targets_Detector.length, actual.detections.count);
+        for (int i = 0; i < actual.detections.count; i++) {
+            LimelightHelpers.LimelightTarget_Detector detection = expected.targets_Detector[i];
+            assertEquals((int) detection.classID, actual.detections.classIds[i]);
+            assertEquals(detection.tx_nocrosshair, actual.detections.txnc[i], EPSILON);
+            assertEquals(detection.ty_nocrosshair, actual.detections.tync[i], EPSILON);
+            assertEquals(detection.ta, actual.detections.ta[i], EPSILON);
+        }
+    }
+
+    @Test
+    void skipsUnrequestedSections() {
+        LimelightResultsReader.Results results = new LimelightResultsReader.Results(LimelightCamera.RESULTS_CAPACITY);
+        assertTrue(LimelightResultsReader.parse(sample, results, false, false));
+        assertEquals(0, results.fiducials.count);
+        assertEquals(0, results.detections.count);
+        assertEquals(2, results.tagCount);
+        assertTrue(results.valid);
+    }
+
+    @Test
+    void dropsFiducialsPastCapacity() {
+        LimelightResultsReader.Results results = new LimelightResultsReader.Results(1);
+        assertTrue(LimelightResultsReader.parse(sample, results, true, true));
+        assertEquals(1, results.fiducials.count);
+        assertEquals(18, results.fiducials.ids[0]);
+        /* the rest of the dump is still read after the skipped fiducial */
+        assertEquals(2, results.tagCount);
+    }
+
+    @Test
+    void clearsFieldsMissingFromTheNextDump() {
+        LimelightResultsReader.Results results = new LimelightResultsReader.Results(LimelightCamera.RESULTS_CAPACITY);
+        assertTrue(LimelightResultsReader.parse(sample, results, true, true));
+        /* no tags in view, the Limelight leaves out the botpose fields */
+        assertTrue(LimelightResultsReader.parse("{\"pID\":1,\"tl\":12.5,\"ts\":2000.0,\"v\":0}", results, true, true));
+
+        assertEquals(1, results.pipelineID);
+        assertEquals(12.5, results.latencyPipeline, EPSILON);
+        assertEquals(0, results.latencyCapture, EPSILON);
+        assertEquals(0, results.timestampRio, EPSILON);
+        assertFalse(results.valid);
+        assertArrayEquals(new double[6], results.botposeWpiBlue, EPSILON);
+        assertEquals(0, results.tagCount);
+        assertEquals(0, results.tagSpan, EPSILON);
+        assertEquals(0, results.avgTagDist, EPSILON);
+        assertEquals(0, results.avgTagArea, EPSILON);
+        assertEquals(0, results.fiducials.count);
+        assertEquals(0, results.detections.count);
+    }
+
+    @Test
+    void rejectsMalformedDumps() {
+        LimelightResultsReader.Results results = new LimelightResultsReader.Results(LimelightCamera.RESULTS_CAPACITY);
+        assertFalse(LimelightResultsReader.parse("", results, true, true));
+        assertFalse(LimelightResultsReader.parse("[1, 2]", results, true, true));
+        assertFalse(LimelightResultsReader.parse(sample.substring(0, sample.length() / 2), results, true, true));
+    }
+
+    /** Prints time and allocation per parse for both paths, the streaming path must allocate less. */
+    @Test
+    void benchmarkAgainstDatabind() throws IOException {
+        LimelightResultsReader.Results results = new LimelightResultsReader.Results(LimelightCamera.RESULTS_CAPACITY);
+        for (int i = 0; i < WARMUP; i++) {
+            LimelightResultsReader.parse(sample, results, true, false);
+            mapper.readValue(sample, LimelightHelpers.LimelightResults.class);
+        }
+
+        long streamingBytes = AllocationCounter.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            LimelightResultsReader.parse(sample, results, true, false);
+        }
+        double streamingNanos = (System.nanoTime() - start) / (double) ITERATIONS;
+        streamingBytes = (AllocationCounter.allocatedBytes() - streamingBytes) / ITERATIONS;
+
+        long databindBytes = AllocationCounter.allocatedBytes();
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.readValue(sample, LimelightHelpers.LimelightResults.class);
+        }
+        double databindNanos = (System.nanoTime() - start) / (double) ITERATIONS;
+        databindBytes = (AllocationCounter.allocatedBytes() - databindBytes) / ITERATIONS;
+
+        System.out.printf("streaming: %.0f ns, %d B per parse%n", streamingNanos, streamingBytes);
+        System.out.printf("databind:  %.0f ns, %d B per parse%n", databindNanos, databindBytes);
+        assertTrue(streamingBytes < databindBytes);
+    }
+}
@@ -0,0 +1,157 @@
+package frc.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.interpolation.TimeInterpolatableBuffer;
+
+/**
+ * Compares PoseHistory with the TimeInterpolatableBuffer it replaces. WPILib interpolates poses
+ * along a twist and PoseHistory along a straight line, so positions agree to within the arc's sag
+ * between two 20 ms samples while headings agree exactly.
+ */
+class PoseHistoryTest {
+
+    private static final double DT = 0.02;
+    private static final int CAPACITY = 75;
+    /** Seconds covered by CAPACITY samples */
+    private static final double HISTORY = (CAPACITY - 1) * DT;
+    private static final double POSITION_EPSILON = 2e-3;
+    private static final double ANGLE_EPSILON = 1e-9;
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    /* driving an arc fast enough that the heading crosses +-pi every couple of seconds */
+    private static double x(double t) {
+        return 3.0 * Math.cos(0.8 * t);
+    }
+
+    private static double y(double t) {
+        return 3.0 * Math.sin(0.8 * t);
+    }
+
+    private static double theta(double t) {
+        return MathUtil.angleModulus(2.5 * t);
+    }
+
+    @Test
+    void matchesTimeInterpolatableBuffer() {
+        PoseHistory history = new PoseHistory(CAPACITY);
+        TimeInterpolatableBuffer<Pose2d> buffer = TimeInterpolatableBuffer.createBuffer(HISTORY);
+
+        for (int step = 0; step < 500; step++) {
+            double now = step * DT;
+            Pose2d pose = new Pose2d(x(now), y(now), new Rotation2d(theta(now)));
+            history.add(now, pose);
+            buffer.addSample(now, pose);
+
+            /* every lookup both still cover, between and on samples */
+            for (double lookup = Math.max(now - HISTORY + DT, 0); lookup <= now; lookup += DT / 3.0) {
+                Pose2d expected = buffer.getSample(lookup).orElseThrow();
+                Pose2d actual = history.getPoseAt(lookup);
+                assertEquals(expected.getX(), actual.getX(), POSITION_EPSILON, "x at " + lookup);
+                assertEquals(expected.getY(), actual.getY(), POSITION_EPSILON, "y at " + lookup);
+                assertEquals(0, MathUtil.angleModulus(expected.getRotation().getRadians() - actual.getRotation().getRadians()), ANGLE_EPSILON, "theta at " + lookup);
+            }
+        }
+    }
+
+    @Test
+    void interpolatesHeadingAcrossPi() {
+        PoseHistory history = new PoseHistory(CAPACITY);
+        history.add(0.0, 0, 0, Math.PI - 0.1);
+        history.add(1.0, 1.0, 0, -Math.PI + 0.1);
+
+        assertTrue(history.sample(0.5));
+        assertEquals(0.5, history.sampleX, ANGLE_EPSILON);
+        /* the short way round is through pi, not through 0 */
+        assertEquals(0, MathUtil.angleModulus(history.sampleTheta - Math.PI), ANGLE_EPSILON);
+        assertTrue(history.sample(0.25));
+        assertEquals(Math.PI - 0.05, history.sampleTheta, ANGLE_EPSILON);
+    }
+
+    @Test
+    void clampsOutsideTheRing() {
+        PoseHistory history = new PoseHistory(CAPACITY);
+        assertFalse(history.sample(0));
+        assertNull(history.getPoseAt(0));
+
+        /* wrap the ring twice, only the last CAPACITY samples remain */
+        for (int step = 0; step < CAPACITY * 2 + 10; step++) {
+            history.add(step * DT, step, 0, 0);
+        }
+        assertEquals(CAPACITY, history.size());
+
+        int oldest = CAPACITY + 10;
+        int newest = CAPACITY * 2 + 9;
+        assertTrue(history.sample(0));
+        assertEquals(oldest, history.sampleX, ANGLE_EPSILON);
+        assertTrue(history.sample(1e6));
+        assertEquals(newest, history.sampleX, ANGLE_EPSILON);
+        assertTrue(history.sample((oldest + 0.5) * DT));
+        assertEquals(oldest + 0.5, history.sampleX, 1e-6);
+    }
+
+    @Test
+    void ignoresOutOfOrderSamples() {
+        PoseHistory history = new PoseHistory(CAPACITY);
+        history.add(1.0, 1.0, 0, 0);
+        history.add(0.5, 5.0, 0, 0);
+        history.add(1.0, 5.0, 0, 0);
+        assertEquals(1, history.size());
+        assertTrue(history.sample(1.0));
+        assertEquals(1.0, history.sampleX, ANGLE_EPSILON);
+    }
+
+    /** Prints time and allocation per add and lookup for both, PoseHistory must not allocate. */
+    @Test
+    void benchmarkAgainstTimeInterpolatableBuffer() {
+        PoseHistory history = new PoseHistory(CAPACITY);
+        TimeInterpolatableBuffer<Pose2d> buffer = TimeInterpolatableBuffer.createBuffer(HISTORY);
+        Pose2d pose = new Pose2d(1.0, 2.0, new Rotation2d(0.5));
+
+        for (int i = 0; i < WARMUP; i++) {
+            runHistory(history, i);
+            runBuffer(buffer, pose, i);
+        }
+
+        long historyBytes = AllocationCounter.allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = WARMUP; i < WARMUP + ITERATIONS; i++) {
+            runHistory(history, i);
+        }
+        double historyNanos = (System.nanoTime() - start) / (double) ITERATIONS;
+        historyBytes = AllocationCounter.allocatedBytes() - historyBytes;
+
+        long bufferBytes = AllocationCounter.allocatedBytes();
+        start = System.nanoTime();
+        for (int i = WARMUP; i < WARMUP + ITERATIONS; i++) {
+            runBuffer(buffer, pose, i);
+        }
+        double bufferNanos = (System.nanoTime() - start) / (double) ITERATIONS;
+        bufferBytes = AllocationCounter.allocatedBytes() - bufferBytes;
+
+        System.out.printf("PoseHistory:              %.0f ns, %d B per add and lookup%n", historyNanos, historyBytes / ITERATIONS);
+        System.out.printf("TimeInterpolatableBuffer: %.0f ns, %d B per add and lookup%n", bufferNanos, bufferBytes / ITERATIONS);
+        assertEquals(0, historyBytes);
+    }
+
+    private static void runHistory(PoseHistory history, int i) {
+        double now = i * DT;
+        history.add(now, 1.0, 2.0, 0.5);
+        history.sample(now - 0.1 - (i % 7) * 0.003);
+    }
+
+    private static void runBuffer(TimeInterpolatableBuffer<Pose2d> buffer, Pose2d pose, int i) {
+        double now = i * DT;
+        buffer.addSample(now, pose);
+        buffer.getSample(now - 0.1 - (i % 7) * 0.003);
+    }
+}
@@ -0,0 +1,117 @@
+package frc.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * One writer publishes updates whose fields are all the update number, several readers check that
+ * every sample they copy holds a single update.
+ */
+class PoseSnapshotTest {
+
+    private static final int READERS = 4;
+    private static final long UPDATES = 2_000_000;
+    private static final long READS_PER_READER = 2_000_000;
+
+    @Test
+    void readsAreNeverTorn() throws InterruptedException {
+        PoseSnapshot snapshot = new PoseSnapshot();
+        AtomicBoolean writerDone = new AtomicBoolean(false);
+        AtomicLong tornReads = new AtomicLong();
+        AtomicLong backwardReads = new AtomicLong();
+        AtomicLong totalReads = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch readersDone = new CountDownLatch(READERS);
+
+        for (int r = 0; r < READERS; r++) {
+            Thread reader = new Thread(() -> {
+                PoseSnapshot.Sample sample = new PoseSnapshot.Sample();
+                double last = 0;
+                long reads = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                /* keep reading until the writer is done and this reader has done its share */
+                while (reads < READS_PER_READER || !writerDone.get()) {
+                    snapshot.read(sample);
+                    double n = sample.timestamp;
+                    if (sample.x != n || sample.y != n || sample.theta != n
+                        || sample.vx != n || sample.vy != n || sample.omega != n) {
+                        tornReads.incrementAndGet();
+                    }
+                    if (n < last) {
+                        backwardReads.incrementAndGet();
+                    }
+                    last = n;
+                    reads++;
+                }
+                totalReads.addAndGet(reads);
+                readersDone.countDown();
+            }, "PoseSnapshot Reader " + r);
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        start.countDown();
+        long writeStart = System.nanoTime();
+        for (long n = 1; n <= UPDATES; n++) {
+            snapshot.publish(n, n, n, n, n, n, n);
+        }
+        double writeSeconds = (System.nanoTime() - writeStart) * 1e-9;
+        writerDone.set(true);
+
+        assertTrue(readersDone.await(60, TimeUnit.SECONDS), "readers didn't finish");
+        System.out.printf("%d updates in %.3f s against %d reads%n", UPDATES, writeSeconds, totalReads.get());
+
+        assertEquals(0, tornReads.get(), "torn reads");
+        assertEquals(0, backwardReads.get(), "reads went back in time");
+        assertEquals(UPDATES, snapshot.getUpdateCount());
+        assertTrue(totalReads.get() >= READERS * READS_PER_READER);
+    }
+
+    @Test
+    void readersDontBlockTheWriter() throws InterruptedException {
+        PoseSnapshot snapshot = new PoseSnapshot();
+        AtomicBoolean stop = new AtomicBoolean(false);
+        for (int r = 0; r < READERS; r++) {
+            Thread reader = new Thread(() -> {
+                PoseSnapshot.Sample sample = new PoseSnapshot.Sample();
+                while (!stop.get()) {
+                    snapshot.read(sample);
+                }
+            }, "PoseSnapshot Reader " + r);
+            reader.setDaemon(true);
+            reader.start();
+        }
+
+        /* publish has no loop or lock, so each call takes a bounded time however hard it is read */
+        Thread writer = new Thread(() -> {
+            for (long n = 1; n <= UPDATES; n++) {
+                snapshot.publish(n, n, n, n, n, n, n);
+            }
+        }, "PoseSnapshot Writer");
+        writer.start();
+        writer.join(TimeUnit.SECONDS.toMillis(30));
+        stop.set(true);
+
+        assertFalse(writer.isAlive(), "writer was held up by readers");
+        assertEquals(UPDATES, snapshot.getUpdateCount());
+    }
+
+    @Test
+    void readBeforePublishIsZero() {
+        PoseSnapshot.Sample sample = new PoseSnapshot().read(new PoseSnapshot.Sample());
+        assertEquals(0, sample.timestamp);
+        assertEquals(0, sample.x);
+    }
+}
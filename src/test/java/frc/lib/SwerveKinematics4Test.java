@@ -0,0 +1,109 @@
+package frc.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Translation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+
+class SwerveKinematics4Test {
+
+    private static final double[] MODULE_X = {0.289, 0.289, -0.289, -0.289};
+    private static final double[] MODULE_Y = {0.289, -0.289, 0.289, -0.289};
+    private static final double MAX_SPEED = 4.5;
+    private static final double EPSILON = 1e-9;
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    private final SwerveKinematics4 kinematics = new SwerveKinematics4(MODULE_X, MODULE_Y);
+
+    @Test
+    void matchesWpilibKinematics() {
+        SwerveDriveKinematics expected = wpilibKinematics(MODULE_X, MODULE_Y);
+
+        double[][] inputs = {{1.0, 0, 0}, {0, -2.0, 0}, {0, 0, 3.0}, {2.5, 1.2, -1.7}, {-4.0, 3.0, 6.0}};
+        for (double[] input : inputs) {
+            SwerveModuleState[] states = expected.toSwerveModuleStates(new ChassisSpeeds(input[0], input[1], input[2]));
+            SwerveDriveKinematics.desaturateWheelSpeeds(states, MAX_SPEED);
+
+            kinematics.toModuleStates(input[0], input[1], input[2]);
+            kinematics.desaturate(MAX_SPEED);
+            for (int i = 0; i < 4; i++) {
+                assertEquals(states[i].speedMetersPerSecond, kinematics.speeds[i], EPSILON);
+                assertEquals(0, MathUtil.angleModulus(states[i].angle.getRadians() - kinematics.angles[i]), EPSILON);
+            }
+        }
+    }
+
+    @Test
+    void matchesWpilibForwardKinematics() {
+        assertForwardKinematicsMatch(MODULE_X, MODULE_Y);
+        /* modules not centered on the robot */
+        assertForwardKinematicsMatch(new double[] {0.4, 0.4, -0.2, -0.2}, new double[] {0.3, -0.25, 0.3, -0.25});
+    }
+
+    private static void assertForwardKinematicsMatch(double[] moduleX, double[] moduleY) {
+        SwerveDriveKinematics expected = wpilibKinematics(moduleX, moduleY);
+        SwerveKinematics4 kinematics = new SwerveKinematics4(moduleX, moduleY);
+
+        /* measured states that aren't a rigid body as well as ones that are */
+        double[][] speeds = {{1.0, 1.0, 1.0, 1.0}, {2.0, -1.5, 0.3, 3.1}, {0, 0, 0, 0}, {4.0, 3.9, 4.1, 3.8}};
+        double[][] angles = {{0, 0, 0, 0}, {0.4, -2.0, 3.0, 1.1}, {1.0, 2.0, 3.0, 4.0}, {0.78, 2.36, -0.78, -2.36}};
+        for (int j = 0; j < speeds.length; j++) {
+            SwerveModuleState[] states = new SwerveModuleState[4];
+            for (int i = 0; i < 4; i++) {
+                states[i] = new SwerveModuleState(speeds[j][i], new Rotation2d(angles[j][i]));
+            }
+            ChassisSpeeds chassisSpeeds = expected.toChassisSpeeds(states);
+
+            kinematics.toChassisSpeeds(speeds[j], angles[j]);
+            assertEquals(chassisSpeeds.vxMetersPerSecond, kinematics.vx, EPSILON);
+            assertEquals(chassisSpeeds.vyMetersPerSecond, kinematics.vy, EPSILON);
+            assertEquals(chassisSpeeds.omegaRadiansPerSecond, kinematics.omega, EPSILON);
+        }
+    }
+
+    private static SwerveDriveKinematics wpilibKinematics(double[] moduleX, double[] moduleY) {
+        Translation2d[] translations = new Translation2d[4];
+        for (int i = 0; i < 4; i++) {
+            translations[i] = new Translation2d(moduleX[i], moduleY[i]);
+        }
+        return new SwerveDriveKinematics(translations);
+    }
+
+    @Test
+    void keepsAnglesWhenStopped() {
+        kinematics.toModuleStates(0, 1.0, 0);
+        kinematics.toModuleStates(0, 0, 0);
+        for (int i = 0; i < 4; i++) {
+            assertEquals(0, kinematics.speeds[i]);
+            assertEquals(Math.PI / 2.0, kinematics.angles[i], EPSILON);
+        }
+    }
+
+    @Test
+    void doesNotAllocate() {
+        for (int i = 0; i < WARMUP; i++) {
+            run(i);
+        }
+
+        long before = AllocationCounter.allocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            run(i);
+        }
+        long allocated = AllocationCounter.allocatedBytes() - before;
+        assertEquals(0, allocated, "bytes allocated over " + ITERATIONS + " calls");
+    }
+
+    private void run(int i) {
+        double t = i * 1e-3;
+        kinematics.toModuleStates(3.0 * Math.sin(t), 3.0 * Math.cos(t), 4.0 * Math.sin(0.3 * t));
+        kinematics.desaturate(MAX_SPEED);
+        kinematics.toChassisSpeeds(kinematics.speeds, kinematics.angles);
+    }
+}
@@ -0,0 +1,68 @@
+package frc.lib;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.MathUtil;
+
+class SwerveSetpointLimiterTest {
+
+    private static final double MAX_SPEED = 4.5;
+    private static final double MAX_ACCELERATION = 8.0;
+    private static final double MAX_STEER_VELOCITY = 20.0;
+    private static final double DT = 0.02;
+    private static final double EPSILON = 1e-9;
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    private final SwerveSetpointLimiter limiter = new SwerveSetpointLimiter(
+        new SwerveKinematics4(new double[] {0.289, 0.289, -0.289, -0.289}, new double[] {0.289, -0.289, 0.289, -0.289}), MAX_ACCELERATION, MAX_STEER_VELOCITY);
+
+    @Test
+    void limitsAccelerationAndSteerVelocity() {
+        double[] lastSpeeds = new double[4];
+        double[] lastAngles = new double[4];
+        for (int step = 0; step < 200; step++) {
+            double t = step * DT;
+            limiter.calculate(MAX_SPEED * Math.signum(Math.sin(t)), MAX_SPEED * Math.signum(Math.cos(2 * t)), 5.0, MAX_SPEED, DT);
+            for (int i = 0; i < 4; i++) {
+                assertTrue(Math.abs(limiter.speeds[i] - lastSpeeds[i]) <= MAX_ACCELERATION * DT + EPSILON);
+                assertTrue(Math.abs(MathUtil.angleModulus(limiter.angles[i] - lastAngles[i])) <= MAX_STEER_VELOCITY * DT + EPSILON);
+                lastSpeeds[i] = limiter.speeds[i];
+                lastAngles[i] = limiter.angles[i];
+            }
+        }
+    }
+
+    @Test
+    void reachesAStraightTarget() {
+        for (int step = 0; step < 100; step++) {
+            limiter.calculate(2.0, 0, 0, MAX_SPEED, DT);
+        }
+        for (int i = 0; i < 4; i++) {
+            assertEquals(2.0, limiter.speeds[i], EPSILON);
+            assertEquals(0, limiter.angles[i], EPSILON);
+        }
+    }
+
+    @Test
+    void doesNotAllocate() {
+        for (int i = 0; i < WARMUP; i++) {
+            run(i);
+        }
+
+        long before = AllocationCounter.allocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            run(i);
+        }
+        long allocated = AllocationCounter.allocatedBytes() - before;
+        assertEquals(0, allocated, "bytes allocated over " + ITERATIONS + " calls");
+    }
+
+    private void run(int i) {
+        double t = i * 1e-3;
+        limiter.calculate(3.0 * Math.sin(t), 3.0 * Math.cos(t), 4.0 * Math.sin(0.3 * t), MAX_SPEED, DT);
+    }
+}
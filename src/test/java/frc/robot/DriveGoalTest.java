@@ -0,0 +1,95 @@
+package frc.robot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import frc.lib.AllocationCounter;
+import frc.lib.PoseSnapshot;
+import frc.lib.SwerveKinematics4;
+import frc.lib.SwerveSetpointLimiter;
+import frc.robot.subsystems.Swerve;
+
+/**
+ * The drive() path past the hardware: snapshot read, goal resolution with a controller registered,
+ * then the setpoint limiter, as Swerve runs it every control period.
+ */
+class DriveGoalTest {
+
+    private static final double EPSILON = 1e-9;
+    private static final double MAX_SPEED = 4.5;
+    private static final double DT = 0.005;
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+
+    private final DriveGoal driveGoal = new DriveGoal();
+    private final double[] goalSpeeds = new double[3];
+
+    @Test
+    void rotatesFieldRelativeGoals() {
+        goalSpeeds[0] = 2.0;
+        goalSpeeds[1] = 0;
+        goalSpeeds[2] = 1.0;
+        driveGoal.resolve(goalSpeeds, true, null, 0, 0, Math.PI / 2.0, 0, 1.0, MAX_SPEED);
+        /* facing +y, field forward is robot right */
+        assertEquals(0, driveGoal.vx, EPSILON);
+        assertEquals(-2.0, driveGoal.vy, EPSILON);
+        assertEquals(1.0, driveGoal.omega, EPSILON);
+
+        driveGoal.resolve(goalSpeeds, false, null, 0, 0, Math.PI / 2.0, 0, 1.0, MAX_SPEED);
+        assertEquals(2.0, driveGoal.vx, EPSILON);
+        assertEquals(0, driveGoal.vy, EPSILON);
+    }
+
+    @Test
+    void scalesTheStickGoalButNotTheController() {
+        goalSpeeds[0] = 3.0;
+        goalSpeeds[1] = 4.0;
+        goalSpeeds[2] = 2.0;
+        driveGoal.resolve(goalSpeeds, false, null, 0, 0, 0, 0, 0.5, 2.0);
+        /* 5 m/s times 0.5 is capped to 2 m/s */
+        assertEquals(1.2, driveGoal.vx, EPSILON);
+        assertEquals(1.6, driveGoal.vy, EPSILON);
+        assertEquals(1.0, driveGoal.omega, EPSILON);
+
+        Swerve.DriveController controller = (x, y, heading, yawRate, speeds) -> speeds[2] = 3.0;
+        driveGoal.resolve(goalSpeeds, false, controller, 0, 0, 0, 0, 0.5, 2.0);
+        assertEquals(1.2, driveGoal.vx, EPSILON);
+        assertEquals(3.0, driveGoal.omega, EPSILON);
+    }
+
+    @Test
+    void doesNotAllocate() {
+        PoseSnapshot snapshot = new PoseSnapshot();
+        PoseSnapshot.Sample sample = new PoseSnapshot.Sample();
+        SwerveSetpointLimiter limiter = new SwerveSetpointLimiter(
+            new SwerveKinematics4(Constants.SwerveConstants.moduleX, Constants.SwerveConstants.moduleY), 8.0, 20.0);
+        /* a heading hold on primitives, like TeleopSwerve's */
+        Swerve.DriveController controller = (x, y, heading, yawRate, speeds) -> {
+            if (speeds[2] == 0) {
+                speeds[2] = -2.0 * heading - 0.1 * yawRate;
+            }
+        };
+
+        for (int i = 0; i < WARMUP; i++) {
+            run(snapshot, sample, limiter, controller, i);
+        }
+        long before = AllocationCounter.allocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) {
+            run(snapshot, sample, limiter, controller, i);
+        }
+        long allocated = AllocationCounter.allocatedBytes() - before;
+        assertEquals(0, allocated, "bytes allocated over " + ITERATIONS + " control periods");
+    }
+
+    private void run(PoseSnapshot snapshot, PoseSnapshot.Sample sample, SwerveSetpointLimiter limiter, Swerve.DriveController controller, int i) {
+        double t = i * DT;
+        snapshot.publish(t, Math.cos(t), Math.sin(t), 0.3 * Math.sin(t), 1.0, 0, 0.3);
+        snapshot.read(sample);
+        goalSpeeds[0] = 3.0 * Math.sin(0.5 * t);
+        goalSpeeds[1] = 3.0 * Math.cos(0.5 * t);
+        goalSpeeds[2] = (i / 1000) % 2 == 0 ? 0 : 2.0;
+        driveGoal.resolve(goalSpeeds, true, controller, sample.x, sample.y, sample.theta, sample.omega, 1.0, MAX_SPEED);
+        limiter.calculate(driveGoal.vx, driveGoal.vy, driveGoal.omega, MAX_SPEED, DT);
+    }
+}
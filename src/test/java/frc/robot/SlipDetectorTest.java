@@ -0,0 +1,90 @@
+package frc.robot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+
+/**
+ * Feeds SlipDetector a rigid body accelerating at the sim's traction limit (wheel COF 1.43 from the
+ * PathPlanner settings) while turning, so no sample should be flagged.
+ */
+class SlipDetectorTest {
+
+    private static final double GRAVITY = 9.81;
+    private static final double ACCELERATION = 1.43 * GRAVITY;
+    /** Radians per Second */
+    private static final double OMEGA = 1.0;
+    private static final double DT = 1.0 / 250.0;
+    private static final int SAMPLES = 60;
+
+    @Test
+    void simulationDoesNotFlagFullAcceleration() {
+        SlipDetector detector = new SlipDetector(false);
+        double[] distances = drive(detector, false);
+        assertEquals(0, detector.getFlaggedSamples());
+        /* nothing was taken back out of the wheel travel */
+        assertEquals(rawDistance(0), distances[0], 1e-9);
+    }
+
+    @Test
+    void accelerometerChecksStillRunOnTheRobot() {
+        SlipDetector detector = new SlipDetector(true);
+        drive(detector, false);
+        assertTrue(detector.getFlaggedSamples() > 0);
+    }
+
+    @Test
+    void matchingAccelerometerDoesNotFlag() {
+        SlipDetector detector = new SlipDetector(true);
+        drive(detector, true);
+        assertEquals(0, detector.getFlaggedSamples());
+    }
+
+    /**
+     * Drives forward from rest at ACCELERATION while turning at OMEGA.
+     * @param accelerometer Whether to report the matching acceleration, else 0 like the Pigeon2 sim
+     * @return Corrected module distances after the last sample
+     */
+    private static double[] drive(SlipDetector detector, boolean accelerometer) {
+        double[] moduleX = Constants.SwerveConstants.moduleX;
+        double[] moduleY = Constants.SwerveConstants.moduleY;
+        double[] raw = new double[4];
+        double[] speeds = new double[4];
+        SwerveModulePosition[] positions = new SwerveModulePosition[4];
+
+        for (int step = 0; step < SAMPLES; step++) {
+            double vx = ACCELERATION * step * DT;
+            for (int i = 0; i < 4; i++) {
+                double moduleVx = vx - OMEGA * moduleY[i];
+                double moduleVy = OMEGA * moduleX[i];
+                speeds[i] = Math.hypot(moduleVx, moduleVy);
+                raw[i] += speeds[i] * DT;
+                positions[i] = new SwerveModulePosition(raw[i], new Rotation2d(Math.atan2(moduleVy, moduleVx)));
+            }
+            /* body frame: forward acceleration plus the centripetal term */
+            double accelX = accelerometer ? ACCELERATION / GRAVITY : 0;
+            double accelY = accelerometer ? OMEGA * vx / GRAVITY : 0;
+            detector.update(step * DT, positions, speeds, accelX, accelY);
+        }
+
+        double[] distances = new double[4];
+        for (int i = 0; i < 4; i++) {
+            distances[i] = positions[i].distanceMeters;
+        }
+        return distances;
+    }
+
+    private static double rawDistance(int module) {
+        double distance = 0;
+        for (int step = 0; step < SAMPLES; step++) {
+            double moduleVx = ACCELERATION * step * DT - OMEGA * Constants.SwerveConstants.moduleY[module];
+            double moduleVy = OMEGA * Constants.SwerveConstants.moduleX[module];
+            distance += Math.hypot(moduleVx, moduleVy) * DT;
+        }
+        return distance;
+    }
+}